@@ -20,6 +20,10 @@ dependencies {
 
     implementation("org.objenesis:objenesis:3.2")
     implementation("io.github.classgraph:classgraph:4.8.138")
+
+    testImplementation("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
+    testImplementation(platform("org.junit:junit-bom:5.10.1"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
 }
 
 tasks {
@@ -30,6 +34,14 @@ tasks {
         options.compilerArgs.add("-parameters")
     }
 
+    compileTestJava {
+        options.encoding = Charsets.UTF_8.name()
+        options.release.set(17)
+        options.compilerArgs.add("-parameters")
+    }
+
+    test { useJUnitPlatform() }
+
     javadoc { options.encoding = Charsets.UTF_8.name() }
 
     shadowJar {
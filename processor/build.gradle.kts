@@ -0,0 +1,36 @@
+plugins {
+    java
+    `maven-publish`
+}
+
+group = "${project.group}"
+version = "${project.version}"
+
+repositories {
+    maven { url = uri("https://repo.maven.apache.org/maven2/") }
+}
+
+tasks {
+
+    compileJava {
+        options.encoding = Charsets.UTF_8.name()
+        options.release.set(17)
+    }
+
+    javadoc { options.encoding = Charsets.UTF_8.name() }
+}
+
+publishing {
+    publications.create<MavenPublication>("maven") {
+        artifactId = "commands-api-processor"
+        from(components["java"])
+    }
+
+    repositories {
+        maven {
+            name = "edenSnapshots"
+            url = uri("https://sonatype.projecteden.gg/repository/maven-snapshots/")
+            credentials(PasswordCredentials::class)
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package gg.projecteden.commands.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Writes an index of every <code>CustomCommand</code> subclass being compiled, along with the <code>@Path</code>,
+ * <code>@ConverterFor</code> and <code>@TabCompleterFor</code> methods each one declares or inherits
+ * <p>
+ * <code>Commands</code> reads the index instead of scanning the classpath and reflecting over every command class.
+ * Each line is tab separated:
+ * <pre>
+ * command   &lt;command class&gt;
+ * path      &lt;command class&gt; &lt;declaring class&gt; &lt;method&gt; &lt;parameter types, comma separated&gt;
+ * converter &lt;command class&gt; &lt;declaring class&gt; &lt;method&gt; &lt;parameter types, comma separated&gt;
+ * completer &lt;command class&gt; &lt;declaring class&gt; &lt;method&gt; &lt;parameter types, comma separated&gt;
+ * </pre>
+ * For each command it also generates a <code>CommandDispatcher</code> which calls those methods without reflection
+ * <p>
+ * The processor supports the annotations of the API, without claiming them from other processors, and is registered
+ * with Gradle as aggregating. When only some classes are recompiled, the commands of the previous index which were not
+ * recompiled are indexed again from their class files, so the index always lists every command. Their dispatchers are
+ * generated again if their methods changed, such as when a superclass was recompiled. Gradle only hands an aggregating
+ * processor the classes using the annotations it supports, so a command is only indexed by incremental Gradle builds
+ * if it uses one of them.
+ */
+@SupportedAnnotationTypes("gg.projecteden.commands.models.annotations.*")
+public class CommandIndexProcessor extends AbstractProcessor {
+	public static final String INDEX = "META-INF/commands-api/index";
+
+	private static final String CUSTOM_COMMAND = "gg.projecteden.commands.models.CustomCommand";
+	private static final String ANNOTATIONS = "gg.projecteden.commands.models.annotations.";
+	private static final String DISPATCHER = "gg.projecteden.commands.models.CommandDispatcher";
+	private static final Map<String, String> KINDS = Map.of(
+		ANNOTATIONS + "Path", "path",
+		ANNOTATIONS + "ConverterFor", "converter",
+		ANNOTATIONS + "TabCompleterFor", "completer"
+	);
+
+	private final Map<String, List<String>> index = new TreeMap<>();
+	private final List<Element> originatingElements = new ArrayList<>();
+	private final Set<String> dispatchers = new HashSet<>();
+	private boolean merged;
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getRootElements())
+			collect(element);
+
+		// Every source file is a root element of the first round, so its dispatchers are compiled with them
+		if (!merged) {
+			merged = true;
+			merge();
+		}
+
+		if (roundEnv.processingOver() && !index.isEmpty())
+			write();
+
+		return false;
+	}
+
+	private void collect(Element element) {
+		if (!(element instanceof TypeElement type))
+			return;
+
+		if (isCommand(type))
+			writeDispatcher(type, index(type));
+
+		for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements()))
+			collect(nested);
+	}
+
+	private boolean isCommand(TypeElement type) {
+		for (TypeElement superclass : superclassesOf(type))
+			if (superclass != type && superclass.getQualifiedName().contentEquals(CUSTOM_COMMAND))
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * @return the methods the dispatcher of the command calls
+	 */
+	private List<ExecutableElement> index(TypeElement type) {
+		String command = binaryName(type);
+		List<String> lines = new ArrayList<>();
+		lines.add("command\t" + command);
+
+		// Same resolution as ReflectionUtils#getAllMethods, subclasses replace methods of their superclasses
+		Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+		List<TypeElement> hierarchy = superclassesOf(type);
+		Collections.reverse(hierarchy);
+		for (TypeElement superclass : hierarchy)
+			for (ExecutableElement method : ElementFilter.methodsIn(superclass.getEnclosedElements()))
+				methods.put(methodKey(method), method);
+
+		List<ExecutableElement> dispatched = new ArrayList<>();
+		for (ExecutableElement method : methods.values())
+			for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+				String kind = KINDS.get(((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString());
+				if (kind == null)
+					continue;
+
+				String parameters = method.getParameters().stream()
+					.map(parameter -> typeName(parameter.asType()))
+					.collect(Collectors.joining(","));
+
+				lines.add(String.join("\t", kind, command, binaryName((TypeElement) method.getEnclosingElement()), method.getSimpleName(), parameters));
+				// Converters and completers are dispatched through their declaring class
+				if ((kind.equals("path") || method.getEnclosingElement() == type) && !dispatched.contains(method))
+					dispatched.add(method);
+			}
+
+		index.put(command, lines);
+		originatingElements.add(type);
+		return dispatched;
+	}
+
+	/**
+	 * Indexes the commands of the previous index that were not compiled this time, unless they were removed.
+	 * Their dispatchers are only generated again if their indexed methods changed, or if they are missing
+	 */
+	private void merge() {
+		Map<String, List<String>> previous = new LinkedHashMap<>();
+		try {
+			FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+			try (BufferedReader reader = new BufferedReader(resource.openReader(true))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					String[] columns = line.split("\t");
+					if (columns.length > 1)
+						previous.computeIfAbsent(columns[1], $ -> new ArrayList<>()).add(line);
+				}
+			}
+		} catch (IOException | RuntimeException ignore) {
+			// No previous index
+		}
+
+		previous.forEach((command, lines) -> {
+			if (index.containsKey(command))
+				return;
+
+			TypeElement type = typeOf(command);
+			if (type == null || !isCommand(type))
+				return;
+
+			List<ExecutableElement> dispatched = index(type);
+			if (!lines.equals(index.get(command)) || typeOf(command + "$Dispatcher") == null)
+				writeDispatcher(type, dispatched);
+		});
+	}
+
+	/**
+	 * @return the type with the binary name, or null if there is none. Nested types are looked up through their
+	 * enclosing types, as a <code>$</code> in the name may also be part of the name of a class
+	 */
+	private TypeElement typeOf(String binaryName) {
+		for (int end = binaryName.indexOf('$'); ; end = binaryName.indexOf('$', end + 1)) {
+			TypeElement topLevel = processingEnv.getElementUtils().getTypeElement(end == -1 ? binaryName : binaryName.substring(0, end));
+			TypeElement type = topLevel == null ? null : find(topLevel, binaryName);
+			if (type != null || end == -1)
+				return type;
+		}
+	}
+
+	private TypeElement find(TypeElement type, String binaryName) {
+		String name = binaryName(type);
+		if (name.equals(binaryName))
+			return type;
+		if (!binaryName.startsWith(name + "$"))
+			return null;
+
+		for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+			TypeElement found = find(nested, binaryName);
+			if (found != null)
+				return found;
+		}
+		return null;
+	}
+
+	/**
+	 * Writes <code>&lt;command class&gt;$Dispatcher</code>, calling every method the dispatcher can access directly.
+	 * Methods it cannot access, such as private ones, are left to reflection
+	 */
+	private void writeDispatcher(TypeElement type, List<ExecutableElement> methods) {
+		if (!isAccessible(type))
+			return;
+
+		String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		List<ExecutableElement> callable = methods.stream().filter(method -> isCallable(type, method)).toList();
+		if (callable.isEmpty())
+			return;
+
+		String binaryName = binaryName(type);
+		if (!dispatchers.add(binaryName))
+			return;
+
+		String simpleName = binaryName.substring(binaryName.lastIndexOf('.') + 1) + "$Dispatcher";
+		String commandType = type.getQualifiedName().toString();
+
+		StringBuilder source = new StringBuilder();
+		if (!pkg.isEmpty())
+			source.append("package ").append(pkg).append(";\n\n");
+
+		source.append("/**\n * Generated by commands-api-processor from {@link ").append(commandType).append("}\n */\n");
+		source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+		source.append("public final class ").append(simpleName).append(" implements ").append(DISPATCHER).append(" {\n\n");
+
+		source.append("\t@Override\n\tpublic int indexOf(String signature) {\n\t\tswitch (signature) {\n");
+		for (int i = 0; i < callable.size(); i++)
+			source.append("\t\t\tcase \"").append(signature(callable.get(i))).append("\": return ").append(i).append(";\n");
+		source.append("\t\t\tdefault: return -1;\n\t\t}\n\t}\n\n");
+
+		writeInvoke(source, commandType, callable, "invoke(int index, Object command, Object[] args)", -1, i -> "args[" + i + "]",
+			"throw new IllegalArgumentException(\"Unknown method index \" + index);");
+		writeInvoke(source, commandType, callable, "invoke1(int index, Object command, Object arg)", 1, i -> "arg",
+			"return invoke(index, command, new Object[] { arg });");
+		writeInvoke(source, commandType, callable, "invoke2(int index, Object command, Object arg1, Object arg2)", 2, i -> "arg" + (i + 1),
+			"return invoke(index, command, new Object[] { arg1, arg2 });");
+		source.append("}\n");
+
+		try {
+			JavaFileObject file = processingEnv.getFiler().createSourceFile((pkg.isEmpty() ? "" : pkg + ".") + simpleName, type);
+			try (Writer writer = file.openWriter()) {
+				writer.write(source.toString());
+			}
+		} catch (IOException ex) {
+			processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to write dispatcher: " + ex.getMessage(), type);
+		}
+	}
+
+	/**
+	 * Writes an invoke method of the dispatcher, calling the methods taking the number of arguments.
+	 * Fixed arity methods are left to the default implementation if no method takes that many arguments
+	 *
+	 * @param arity the number of arguments of the methods it calls, or -1 for all of them
+	 * @param arg the expression of each argument
+	 * @param fallback the statement for the other indexes
+	 */
+	private void writeInvoke(StringBuilder source, String commandType, List<ExecutableElement> methods, String signature, int arity, IntFunction<String> arg, String fallback) {
+		if (arity != -1 && methods.stream().noneMatch(method -> method.getParameters().size() == arity))
+			return;
+
+		source.append("\t@Override\n\tpublic Object ").append(signature).append(" throws Throwable {\n\t\tswitch (index) {\n");
+		for (int i = 0; i < methods.size(); i++) {
+			ExecutableElement method = methods.get(i);
+			List<? extends VariableElement> parameters = method.getParameters();
+			if (arity != -1 && parameters.size() != arity)
+				continue;
+
+			String target = method.getModifiers().contains(Modifier.STATIC) ? commandType : "((" + commandType + ") command)";
+			StringBuilder call = new StringBuilder(target).append('.').append(method.getSimpleName()).append('(');
+			for (int j = 0; j < parameters.size(); j++)
+				call.append(j == 0 ? "" : ", ").append('(').append(sourceName(parameters.get(j).asType())).append(") ").append(arg.apply(j));
+			call.append(')');
+
+			source.append("\t\t\tcase ").append(i).append(": ");
+			if (method.getReturnType().getKind() == TypeKind.VOID)
+				source.append(call).append("; return null;\n");
+			else
+				source.append("return ").append(call).append(";\n");
+		}
+		source.append("\t\t\tdefault: ").append(fallback).append("\n\t\t}\n\t}\n\n");
+	}
+
+	/**
+	 * @return whether a class in the same package can refer to the type
+	 */
+	private boolean isAccessible(TypeElement type) {
+		for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement())
+			if (element.getModifiers().contains(Modifier.PRIVATE))
+				return false;
+		return true;
+	}
+
+	/**
+	 * @return whether a class in the package of the command can call the method on the command
+	 */
+	private boolean isCallable(TypeElement type, ExecutableElement method) {
+		Set<Modifier> modifiers = method.getModifiers();
+		if (modifiers.contains(Modifier.PUBLIC))
+			return true;
+		if (modifiers.contains(Modifier.PRIVATE))
+			return false;
+
+		var elements = processingEnv.getElementUtils();
+		return elements.getPackageOf(method).equals(elements.getPackageOf(type));
+	}
+
+	/**
+	 * @return the method name and parameter types, matching the signature computed at runtime
+	 */
+	private String signature(ExecutableElement method) {
+		return method.getSimpleName() + "(" + method.getParameters().stream()
+			.map(parameter -> typeName(parameter.asType()))
+			.collect(Collectors.joining(",")) + ")";
+	}
+
+	/**
+	 * @return the erased type as written in source, with primitives boxed
+	 */
+	private String sourceName(TypeMirror type) {
+		var types = processingEnv.getTypeUtils();
+		type = types.erasure(type);
+		if (type.getKind().isPrimitive())
+			return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+		return type.toString();
+	}
+
+	private void write() {
+		try {
+			FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX, originatingElements.toArray(Element[]::new));
+			try (Writer writer = resource.openWriter()) {
+				for (List<String> lines : index.values())
+					for (String line : lines)
+						writer.write(line + "\n");
+			}
+		} catch (IOException ex) {
+			processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to write " + INDEX + ": " + ex.getMessage());
+		}
+	}
+
+	private List<TypeElement> superclassesOf(TypeElement type) {
+		List<TypeElement> superclasses = new ArrayList<>();
+		while (type != null && !type.getQualifiedName().contentEquals(Object.class.getName())) {
+			superclasses.add(type);
+			TypeMirror superclass = type.getSuperclass();
+			type = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+		}
+		return superclasses;
+	}
+
+	private String methodKey(ExecutableElement method) {
+		return method.getSimpleName() + "(" + method.getParameters().stream()
+			.map(VariableElement::asType)
+			.map(this::simpleName)
+			.collect(Collectors.joining(",")) + ")";
+	}
+
+	private String simpleName(TypeMirror type) {
+		String name = typeName(type);
+		return name.substring(Math.max(name.lastIndexOf('.'), name.lastIndexOf('$')) + 1);
+	}
+
+	/**
+	 * @return the type name as returned by {@link Class#getTypeName()}
+	 */
+	private String typeName(TypeMirror type) {
+		type = processingEnv.getTypeUtils().erasure(type);
+		if (type.getKind().isPrimitive())
+			return type.getKind().name().toLowerCase();
+		if (type.getKind() == TypeKind.ARRAY)
+			return typeName(((ArrayType) type).getComponentType()) + "[]";
+		if (type.getKind() == TypeKind.DECLARED)
+			return binaryName((TypeElement) ((DeclaredType) type).asElement());
+		return type.toString();
+	}
+
+	private String binaryName(TypeElement type) {
+		return processingEnv.getElementUtils().getBinaryName(type).toString();
+	}
+
+}
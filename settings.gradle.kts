@@ -6,3 +6,4 @@ pluginManagement {
 
 rootProject.name = "commands-api"
 
+include("processor")
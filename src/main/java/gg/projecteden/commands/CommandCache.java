@@ -0,0 +1,142 @@
+package gg.projecteden.commands;
+
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the {@link CommandIndex} built by a classpath scan in the plugin data folder, so the next startup
+ * can skip the scan as long as the scanned jars did not change
+ * <p>
+ * The key is a SHA-256 digest of the path, size, modification time and contents of every jar and of the scanned
+ * packages. The file starts with a magic number, a format version and the key it was written for, followed by the
+ * lines of the index, each prefixed with its length in bytes. It is read whole rather than memory-mapped, as a
+ * mapping that is still open keeps the file from being replaced on some platforms.
+ */
+final class CommandCache {
+	private static final int MAGIC = 0x434D4458;
+	private static final int VERSION = 2;
+	private static final int KEY_LENGTH = 32;
+
+	private final Path file;
+	private final byte[] key;
+
+	private CommandCache(Path file, byte[] key) {
+		this.file = file;
+		this.key = key;
+	}
+
+	/**
+	 * @return the cache for the jars the class loader loads from and the scanned packages,
+	 * or null if the jars cannot be found
+	 */
+	@Nullable
+	static CommandCache of(Plugin plugin, ClassLoader classLoader, String... packages) {
+		try {
+			List<Path> jars = new ArrayList<>();
+			if (classLoader instanceof URLClassLoader urlClassLoader)
+				for (URL url : urlClassLoader.getURLs())
+					jars.add(Path.of(url.toURI()));
+			else
+				jars.add(Path.of(plugin.getClass().getProtectionDomain().getCodeSource().getLocation().toURI()));
+
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+			for (Path jar : jars) {
+				if (!Files.isRegularFile(jar))
+					return null;
+
+				digest.update((jar + "\0" + Files.size(jar) + "\0" + Files.getLastModifiedTime(jar).toMillis() + "\0").getBytes(StandardCharsets.UTF_8));
+				try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+					while (channel.read(buffer.clear()) != -1)
+						digest.update(buffer.flip());
+				}
+			}
+			String scanned = String.join(",", packages);
+			digest.update(scanned.getBytes(StandardCharsets.UTF_8));
+
+			String name = "commands-" + Integer.toHexString(scanned.hashCode()) + ".cache";
+			return new CommandCache(new File(plugin.getDataFolder(), name).toPath(), digest.digest());
+		} catch (IOException | URISyntaxException | NoSuchAlgorithmException | IllegalArgumentException | SecurityException ex) {
+			Commands.debug("Command cache unavailable: " + ex.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * @return the cached index, or null if there is none or it was written for other jars
+	 */
+	@Nullable
+	CommandIndex load(ClassLoader classLoader) {
+		if (!Files.isRegularFile(file))
+			return null;
+
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+				return null;
+
+			byte[] key = new byte[KEY_LENGTH];
+			buffer.get(key);
+			if (!Arrays.equals(key, this.key))
+				return null;
+
+			int count = buffer.getInt();
+			List<String> lines = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				byte[] bytes = new byte[buffer.getInt()];
+				buffer.get(bytes);
+				lines.add(new String(bytes, StandardCharsets.UTF_8));
+			}
+
+			return CommandIndex.of(classLoader, lines);
+		} catch (IOException | RuntimeException ex) {
+			Commands.warn("Ignoring unreadable command cache " + file, ex);
+			return null;
+		}
+	}
+
+	void save(CommandIndex index) {
+		try {
+			Files.createDirectories(file.getParent());
+			Path temp = Files.createTempFile(file.getParent(), "commands", ".tmp");
+			try (OutputStream stream = Files.newOutputStream(temp);
+				 DataOutputStream output = new DataOutputStream(stream)) {
+				List<String> lines = index.toLines();
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.write(key);
+				output.writeInt(lines.size());
+				for (String line : lines) {
+					byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+					output.writeInt(bytes.length);
+					output.write(bytes);
+				}
+			}
+
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			Commands.warn("Could not write command cache " + file, ex);
+		}
+	}
+
+}
@@ -0,0 +1,228 @@
+package gg.projecteden.commands;
+
+import gg.projecteden.commands.models.CustomCommand;
+import gg.projecteden.commands.models.annotations.ConverterFor;
+import gg.projecteden.commands.models.annotations.Path;
+import gg.projecteden.commands.models.annotations.TabCompleterFor;
+import gg.projecteden.commands.util.Utils;
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static gg.projecteden.commands.util.ReflectionUtils.methodsAnnotatedWith;
+
+/**
+ * Command classes and their annotated methods, as listed at compile time by the optional
+ * <code>commands-api-processor</code> annotation processor, or by a previous scan (see {@link CommandCache})
+ * <p>
+ * When present, {@link Commands} uses the index instead of scanning the classpath,
+ * and looks up the listed methods directly instead of reflecting over every method of the command
+ */
+@SuppressWarnings("unchecked")
+public class CommandIndex {
+	public static final String RESOURCE = "META-INF/commands-api/index";
+
+	private final ClassLoader classLoader;
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+	private CommandIndex(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * @return the index of every jar visible to the class loader, or null if none was generated
+	 */
+	@Nullable
+	@SneakyThrows
+	public static CommandIndex load(ClassLoader classLoader) {
+		List<URL> resources = Collections.list(classLoader.getResources(RESOURCE));
+		if (resources.isEmpty())
+			return null;
+
+		List<String> lines = new ArrayList<>();
+		for (URL resource : resources)
+			try (InputStream stream = resource.openStream();
+				 BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null)
+					lines.add(line);
+			}
+
+		return of(classLoader, lines);
+	}
+
+	/**
+	 * @param lines lines in the format written by the annotation processor
+	 */
+	static CommandIndex of(ClassLoader classLoader, List<String> lines) {
+		CommandIndex index = new CommandIndex(classLoader);
+		for (String line : lines)
+			if (!line.isBlank())
+				index.read(line.split("\t", -1));
+		return index;
+	}
+
+	/**
+	 * Indexes the commands by reflecting over their methods
+	 */
+	static CommandIndex of(ClassLoader classLoader, Collection<Class<? extends CustomCommand>> commands) {
+		CommandIndex index = new CommandIndex(classLoader);
+		for (Class<? extends CustomCommand> command : commands) {
+			Entry entry = index.entries.computeIfAbsent(command.getName(), $ -> new Entry());
+			methodsAnnotatedWith(command, Path.class).forEach(method -> entry.paths.add(MethodRef.of(method)));
+			methodsAnnotatedWith(command, ConverterFor.class).forEach(method -> entry.converters.add(MethodRef.of(method)));
+			methodsAnnotatedWith(command, TabCompleterFor.class).forEach(method -> entry.completers.add(MethodRef.of(method)));
+		}
+		return index;
+	}
+
+	/**
+	 * @return the index in the format written by the annotation processor
+	 */
+	List<String> toLines() {
+		List<String> lines = new ArrayList<>();
+		entries.forEach((command, entry) -> {
+			lines.add("command\t" + command);
+			entry.paths.forEach(method -> lines.add("path\t" + command + "\t" + method));
+			entry.converters.forEach(method -> lines.add("converter\t" + command + "\t" + method));
+			entry.completers.forEach(method -> lines.add("completer\t" + command + "\t" + method));
+		});
+		return lines;
+	}
+
+	private void read(String[] line) {
+		Entry entry = entries.computeIfAbsent(line[1], $ -> new Entry());
+		if (line.length < 5)
+			return;
+
+		MethodRef method = new MethodRef(line[2], line[3], line[4].isEmpty() ? new String[0] : line[4].split(","));
+		switch (line[0]) {
+			case "path" -> entry.paths.add(method);
+			case "converter" -> entry.converters.add(method);
+			case "completer" -> entry.completers.add(method);
+		}
+	}
+
+	public boolean isIndexed(Class<?> clazz) {
+		return entries.containsKey(clazz.getName());
+	}
+
+	/**
+	 * @return the indexed commands in the provided packages which can be enabled
+	 */
+	@SneakyThrows
+	public Set<Class<? extends CustomCommand>> getCommands(String... packages) {
+		Set<Class<? extends CustomCommand>> commands = new HashSet<>();
+		for (String name : entries.keySet()) {
+			if (packages.length > 0 && Arrays.stream(packages).noneMatch(pkg -> name.startsWith(pkg + ".")))
+				continue;
+
+			Class<? extends CustomCommand> clazz = (Class<? extends CustomCommand>) Class.forName(name, false, classLoader);
+			if (Utils.canEnable(clazz))
+				commands.add(clazz);
+		}
+		return commands;
+	}
+
+	/**
+	 * @return the <code>@Path</code> methods of the command, or null if the command is not indexed
+	 */
+	@Nullable
+	public List<Method> getPathMethods(Class<?> clazz) {
+		Entry entry = entries.get(clazz.getName());
+		return entry == null ? null : resolve(clazz, entry.paths);
+	}
+
+	/**
+	 * @return the <code>@ConverterFor</code> methods of the command, or null if the command is not indexed
+	 */
+	@Nullable
+	public List<Method> getConverters(Class<?> clazz) {
+		Entry entry = entries.get(clazz.getName());
+		return entry == null ? null : resolve(clazz, entry.converters);
+	}
+
+	/**
+	 * @return the <code>@TabCompleterFor</code> methods of the command, or null if the command is not indexed
+	 */
+	@Nullable
+	public List<Method> getTabCompleters(Class<?> clazz) {
+		Entry entry = entries.get(clazz.getName());
+		return entry == null ? null : resolve(clazz, entry.completers);
+	}
+
+	private static List<Method> resolve(Class<?> clazz, List<MethodRef> methods) {
+		List<Method> resolved = new ArrayList<>(methods.size());
+		for (MethodRef method : methods)
+			resolved.add(method.resolve(clazz));
+		return resolved;
+	}
+
+	private static class Entry {
+		private final List<MethodRef> paths = new ArrayList<>();
+		private final List<MethodRef> converters = new ArrayList<>();
+		private final List<MethodRef> completers = new ArrayList<>();
+	}
+
+	@AllArgsConstructor
+	private static class MethodRef {
+		private final String declaringClass;
+		private final String name;
+		private final String[] parameterTypes;
+
+		private static MethodRef of(Method method) {
+			return new MethodRef(method.getDeclaringClass().getName(), method.getName(),
+				Arrays.stream(method.getParameterTypes()).map(Class::getTypeName).toArray(String[]::new));
+		}
+
+		@Override
+		public String toString() {
+			return declaringClass + "\t" + name + "\t" + String.join(",", parameterTypes);
+		}
+
+		/**
+		 * Finds the method among the declared methods of the command or its superclasses,
+		 * so no class has to be loaded by name
+		 */
+		private Method resolve(Class<?> command) {
+			for (Class<?> clazz = command; clazz != null; clazz = clazz.getSuperclass()) {
+				if (!clazz.getName().equals(declaringClass))
+					continue;
+
+				for (Method method : clazz.getDeclaredMethods()) {
+					if (!method.getName().equals(name) || method.getParameterCount() != parameterTypes.length)
+						continue;
+
+					Class<?>[] types = method.getParameterTypes();
+					boolean matches = true;
+					for (int i = 0; i < types.length && matches; i++)
+						matches = types[i].getTypeName().equals(parameterTypes[i]);
+
+					if (matches) {
+						method.setAccessible(true);
+						return method;
+					}
+				}
+			}
+
+			throw new IllegalStateException("Indexed method " + declaringClass + "#" + name + " not found, is the command index outdated?");
+		}
+	}
+
+}
@@ -3,14 +3,20 @@ package gg.projecteden.commands;
 import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
 import com.google.common.base.Strings;
 import gg.projecteden.commands.models.CustomCommand;
+import gg.projecteden.commands.models.TabCompleteBudget;
 import gg.projecteden.commands.models.events.CommandTabEvent;
 import gg.projecteden.commands.util.Nullables;
+import gg.projecteden.commands.util.OfflinePlayerIndex;
+import gg.projecteden.commands.util.OnlinePlayerIndex;
 import gg.projecteden.commands.util.PlayerUtils;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -37,6 +43,18 @@ public class CommandListener implements Listener {
 		}
 	}
 
+	@EventHandler(priority = EventPriority.LOWEST)
+	public void onJoin(PlayerJoinEvent event) {
+		OnlinePlayerIndex.add(event.getPlayer());
+		OfflinePlayerIndex.add(event.getPlayer());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent event) {
+		OnlinePlayerIndex.remove(event.getPlayer());
+		Commands.getInstance().getTabCompleteSessions().remove(event.getPlayer().getUniqueId());
+	}
+
 	@EventHandler
 	@SneakyThrows
 	public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
@@ -56,6 +74,9 @@ public class CommandListener implements Listener {
 		args.remove(0);
 
 		CommandTabEvent tabEvent = new CommandTabEvent(event.getSender(), customCommand, alias, args, Collections.unmodifiableList(args));
+		TabCompleteBudget budget = Commands.getInstance().getTabCompleteBudget();
+		if (budget != null)
+			tabEvent.setDeadline(System.nanoTime() + budget.getDuration().toNanos());
 		if (!tabEvent.callEvent())
 			return;
 
@@ -1,33 +1,42 @@
 package gg.projecteden.commands;
 
+import gg.projecteden.commands.models.CommandMetadata;
 import gg.projecteden.commands.models.CustomCommand;
-import gg.projecteden.commands.models.annotations.Description;
-import gg.projecteden.commands.models.annotations.DoubleSlash;
-import gg.projecteden.commands.models.annotations.Permission;
-import gg.projecteden.commands.models.annotations.Redirects.Redirect;
-import gg.projecteden.commands.util.Utils;
+import gg.projecteden.commands.util.Tasks;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @SuppressWarnings("unchecked")
 public class CommandMapUtils {
 	private final Plugin plugin;
 	private final Constructor<PluginCommand> COMMAND_CONSTRUCTOR;
-	private final Field COMMAND_MAP_FIELD;
 	private final Field KNOWN_COMMANDS_FIELD;
 	@Getter
 	private final SimpleCommandMap commandMap;
 	@Getter
 	private final Map<String, Command> knownCommandMap;
+	/**
+	 * <code>CraftServer#syncCommands</code>, which rebuilds the command tree sent to players, or null if unavailable
+	 */
+	private final Method SYNC_COMMANDS;
+	/**
+	 * The {@link PluginCommand} registered for each command, so it can be removed without scanning the command map
+	 */
+	private final Map<CustomCommand, PluginCommand> registered = new HashMap<>();
 
 	CommandMapUtils(Plugin plugin) {
 		this.plugin = plugin;
@@ -35,51 +44,110 @@ public class CommandMapUtils {
 			COMMAND_CONSTRUCTOR = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
 			COMMAND_CONSTRUCTOR.setAccessible(true);
 
-			COMMAND_MAP_FIELD = Bukkit.getPluginManager().getClass().getDeclaredField("commandMap");
-			COMMAND_MAP_FIELD.setAccessible(true);
-
 			KNOWN_COMMANDS_FIELD = SimpleCommandMap.class.getDeclaredField("knownCommands");
 			KNOWN_COMMANDS_FIELD.setAccessible(true);
 
-			commandMap = (SimpleCommandMap) COMMAND_MAP_FIELD.get(Bukkit.getServer().getPluginManager());
+			commandMap = (SimpleCommandMap) Bukkit.getServer().getCommandMap();
 			knownCommandMap = (Map<String, Command>) KNOWN_COMMANDS_FIELD.get(commandMap);
+
+			SYNC_COMMANDS = findSyncCommands();
 		} catch (NoSuchMethodException | NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
-	void register(String name, CustomCommand customCommand) throws IllegalAccessException, InvocationTargetException, InstantiationException {
-		if (customCommand.getClass().getAnnotation(DoubleSlash.class) != null)
-			name = "/" + name;
-		name = name.toLowerCase();
-		CommandHandler handler = new CommandHandler(customCommand);
+	private static Method findSyncCommands() {
+		try {
+			return Bukkit.getServer().getClass().getMethod("syncCommands");
+		} catch (NoSuchMethodException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Registers a single {@link PluginCommand} for the command, with its aliases attached,
+	 * replacing any previous registration of it
+	 */
+	void register(CustomCommand customCommand) throws IllegalAccessException, InvocationTargetException, InstantiationException {
+		unregister(customCommand);
+
+		CommandMetadata metadata = customCommand.getMetadata();
+		String slash = metadata.isDoubleSlash() ? "/" : "";
+		String name = (slash + metadata.getName()).toLowerCase();
+		List<String> aliases = new ArrayList<>();
+		for (String alias : metadata.getAliases())
+			aliases.add((slash + alias).toLowerCase());
 
 		PluginCommand pluginCommand = COMMAND_CONSTRUCTOR.newInstance(name, plugin);
 		pluginCommand.setLabel(name);
-		pluginCommand.setAliases(customCommand.getAliases());
-		pluginCommand.setExecutor(handler);
-		Description description = customCommand.getClass().getAnnotation(Description.class);
-		if (description != null)
-			pluginCommand.setDescription(description.value());
-		Permission permission = customCommand.getClass().getAnnotation(Permission.class);
-		if (permission != null)
-			pluginCommand.setPermission(permission.value());
+		pluginCommand.setAliases(aliases);
+		pluginCommand.setExecutor(new CommandHandler(customCommand));
+		if (metadata.getDescription() != null)
+			pluginCommand.setDescription(metadata.getDescription());
+		if (metadata.getPermission() != null)
+			pluginCommand.setPermission(metadata.getPermission());
 
 		commandMap.register(plugin.getDescription().getName(), pluginCommand);
-		knownCommandMap.put(plugin.getDescription().getName().toLowerCase() + ":" + name, pluginCommand);
-		knownCommandMap.put(name, pluginCommand);
 
-		registerRedirects(customCommand);
+		// Take over labels already claimed by other plugins
+		String prefix = getFallbackPrefix();
+		put(name, prefix, pluginCommand);
+		for (String alias : aliases)
+			put(alias, prefix, pluginCommand);
+
+		registered.put(customCommand, pluginCommand);
 	}
 
-	private void registerRedirects(CustomCommand customCommand) {
-		for (Redirect annotation : customCommand.getClass().getAnnotationsByType(Redirect.class))
-			for (String from : annotation.from())
-				Commands.getRedirects().put(from, annotation.to());
+	private void put(String label, String prefix, PluginCommand pluginCommand) {
+		knownCommandMap.put(prefix + ":" + label, pluginCommand);
+		knownCommandMap.put(label, pluginCommand);
 	}
 
-	void unregister(String name) {
-		Utils.removeIf(command -> command instanceof PluginCommand && name.equals(command.getLabel()), command -> command.unregister(commandMap), knownCommandMap.values());
+	/**
+	 * Removes the command from the command map, only touching the entries it was registered under
+	 */
+	void unregister(CustomCommand customCommand) {
+		PluginCommand pluginCommand = registered.remove(customCommand);
+		if (pluginCommand == null)
+			return;
+
+		String prefix = getFallbackPrefix();
+		pluginCommand.unregister(commandMap);
+		remove(pluginCommand.getLabel(), prefix, pluginCommand);
+		for (String alias : pluginCommand.getAliases())
+			remove(alias, prefix, pluginCommand);
+	}
+
+	private void remove(String label, String prefix, PluginCommand pluginCommand) {
+		knownCommandMap.remove(label, pluginCommand);
+		knownCommandMap.remove(prefix + ":" + label, pluginCommand);
+	}
+
+	private String getFallbackPrefix() {
+		return plugin.getDescription().getName().toLowerCase();
+	}
+
+	/**
+	 * Sends the updated command tree to online players, called once after a batch of changes
+	 */
+	void sync() {
+		if (!Bukkit.isPrimaryThread()) {
+			Tasks.sync(this::sync);
+			return;
+		}
+
+		if (Bukkit.getOnlinePlayers().isEmpty())
+			return;
+
+		if (SYNC_COMMANDS != null)
+			try {
+				SYNC_COMMANDS.invoke(Bukkit.getServer());
+				return;
+			} catch (IllegalAccessException | InvocationTargetException ex) {
+				Commands.debug("Failed to sync commands: " + ex.getMessage());
+			}
+
+		Bukkit.getOnlinePlayers().forEach(Player::updateCommands);
 	}
 
 }
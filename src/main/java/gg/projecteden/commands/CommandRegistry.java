@@ -0,0 +1,89 @@
+package gg.projecteden.commands;
+
+import gg.projecteden.commands.models.Completer;
+import gg.projecteden.commands.models.Converter;
+import gg.projecteden.commands.models.CustomCommand;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the commands, converters, tab completers and redirects registered with {@link Commands}
+ * <p>
+ * A snapshot is never modified once published, so readers on any thread (such as async tab completion) get a
+ * consistent view without locking. Changes are made on a {@link Builder} copy which then replaces the snapshot.
+ */
+@Getter
+class CommandRegistry {
+	static final CommandRegistry EMPTY = new Builder(null).build();
+
+	/**
+	 * Commands by alias, case-insensitive
+	 */
+	private final Map<String, CustomCommand> commands;
+	private final Map<Class<?>, Converter> converters;
+	private final Map<Class<?>, Completer> tabCompleters;
+	private final Map<String, String> redirects;
+
+	private CommandRegistry(Builder builder) {
+		this.commands = Collections.unmodifiableMap(builder.commands);
+		this.converters = Collections.unmodifiableMap(builder.converters);
+		this.tabCompleters = Collections.unmodifiableMap(builder.tabCompleters);
+		this.redirects = Collections.unmodifiableMap(builder.redirects);
+	}
+
+	Builder toBuilder() {
+		return new Builder(this);
+	}
+
+	static class Builder {
+		private final TreeMap<String, CustomCommand> commands = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		private final Map<Class<?>, Converter> converters = new HashMap<>();
+		private final Map<Class<?>, Completer> tabCompleters = new HashMap<>();
+		private final Map<String, String> redirects = new LinkedHashMap<>();
+
+		private Builder(CommandRegistry registry) {
+			if (registry == null)
+				return;
+
+			commands.putAll(registry.commands);
+			converters.putAll(registry.converters);
+			tabCompleters.putAll(registry.tabCompleters);
+			redirects.putAll(registry.redirects);
+		}
+
+		Builder command(String alias, CustomCommand command) {
+			commands.put(alias, command);
+			return this;
+		}
+
+		Builder removeCommand(String alias) {
+			commands.remove(alias);
+			return this;
+		}
+
+		Builder converter(Class<?> type, Converter converter) {
+			converters.put(type, converter);
+			return this;
+		}
+
+		Builder tabCompleter(Class<?> type, Completer completer) {
+			tabCompleters.put(type, completer);
+			return this;
+		}
+
+		Builder redirect(String from, String to) {
+			redirects.put(from, to);
+			return this;
+		}
+
+		CommandRegistry build() {
+			return new CommandRegistry(this);
+		}
+	}
+
+}
@@ -1,11 +1,20 @@
 package gg.projecteden.commands;
 
 import gg.projecteden.commands.models.CustomCommand;
+import gg.projecteden.commands.models.CommandMetadata;
+import gg.projecteden.commands.models.CommandWarmup;
+import gg.projecteden.commands.models.Completer;
+import gg.projecteden.commands.models.Converter;
 import gg.projecteden.commands.models.ICustomCommand;
+import gg.projecteden.commands.models.TabCompleteBudget;
+import gg.projecteden.commands.models.TabCompleteSessions;
+import gg.projecteden.commands.models.TabCompletionCache;
 import gg.projecteden.commands.models.annotations.ConverterFor;
-import gg.projecteden.commands.models.annotations.DoubleSlash;
+import gg.projecteden.commands.models.annotations.Redirects.Redirect;
 import gg.projecteden.commands.models.annotations.TabCompleterFor;
 import gg.projecteden.commands.util.Env;
+import gg.projecteden.commands.util.OfflinePlayerIndex;
+import gg.projecteden.commands.util.OnlinePlayerIndex;
 import gg.projecteden.commands.util.StringUtils;
 import gg.projecteden.commands.util.TriFunction;
 import gg.projecteden.commands.util.Utils;
@@ -16,14 +25,21 @@ import net.md_5.bungee.api.ChatColor;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 
+import java.io.File;
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.logging.Level;
 
@@ -40,6 +56,14 @@ public class Commands {
 	private final Plugin plugin;
 	private Env env = Env.PROD;
 	@Getter
+	private boolean lazy;
+	private boolean cache;
+	private Duration warmup;
+	private boolean warmupArguments;
+	private boolean persistOfflinePlayers;
+	@Getter
+	private TabCompleteBudget tabCompleteBudget;
+	@Getter
 	private TriFunction<String, Class<?>, CustomCommand, Object> additionalConverters;
 	@Getter
 	private Function<Class<?>, Class<?>> additionalTabCompleters;
@@ -47,25 +71,31 @@ public class Commands {
 	@Getter
 	private final CommandMapUtils mapUtils;
 	private final Set<Class<? extends CustomCommand>> commandSet;
+	/**
+	 * Generated at compile time by <code>commands-api-processor</code>, null if the plugin was not built with it
+	 */
 	@Getter
-	private static final Map<String, CustomCommand> commands = new HashMap<>();
-	@Getter
-	private static final Map<Class<?>, Method> converters = new HashMap<>();
+	private CommandIndex index;
+	/**
+	 * Replaced as a whole on every change, see {@link CommandRegistry}
+	 */
+	private volatile CommandRegistry registry = CommandRegistry.EMPTY;
 	@Getter
-	private static final Map<Class<?>, Method> tabCompleters = new HashMap<>();
+	private final TabCompleteSessions tabCompleteSessions = new TabCompleteSessions();
 	@Getter
-	private static final Map<String, String> redirects = new HashMap<>();
+	private final TabCompletionCache tabCompletionCache = new TabCompletionCache(TabCompletionCache.DEFAULT_MAX_SIZE);
 	@Getter
 	private static final String pattern = "(\\/){1,2}[\\w\\-]+";
 
 	public Commands(@NonNull Plugin plugin) {
-		if (instance != null && !commands.isEmpty())
+		if (instance != null && !instance.registry.getCommands().isEmpty())
 			throw new UnsupportedOperationException("Cannot invoke a new instance of Commands while having commands registered. Please call Commands#unregisterAll in your onDisable");
 		Commands.instance = this;
 		this.plugin = plugin;
 		this.mapUtils = new CommandMapUtils(plugin);
 		this.commandSet = new HashSet<>();
 		plugin.getServer().getPluginManager().registerEvents(new CommandListener(), plugin);
+		OnlinePlayerIndex.reset(plugin.getServer().getOnlinePlayers());
 	}
 
 	public Commands add(Class<? extends CustomCommand> customCommand) {
@@ -74,7 +104,27 @@ public class Commands {
 	}
 
 	public Commands scan(ClassLoader classLoader, String... path) {
-		this.commandSet.addAll(subTypesOf(CustomCommand.class, classLoader, path));
+		ClassLoader loader = classLoader == null ? plugin.getClass().getClassLoader() : classLoader;
+		CommandCache cache = null;
+
+		CommandIndex index = CommandIndex.load(loader);
+		if (index == null && this.cache) {
+			cache = CommandCache.of(plugin, loader, path);
+			index = cache == null ? null : cache.load(loader);
+		}
+
+		if (index != null) {
+			this.index = index;
+			this.commandSet.addAll(index.getCommands(path));
+			return this;
+		}
+
+		Set<Class<? extends CustomCommand>> commands = subTypesOf(CustomCommand.class, classLoader, path);
+		this.commandSet.addAll(commands);
+		if (cache != null) {
+			this.index = CommandIndex.of(loader, commands);
+			cache.save(this.index);
+		}
 		return this;
 	}
 
@@ -87,6 +137,67 @@ public class Commands {
 		return this;
 	}
 
+	/**
+	 * In lazy mode, the {@link gg.projecteden.commands.models.annotations.Path} methods of a command are only compiled
+	 * when it is first run or tab completed. Only what the command map needs (aliases, permission, description)
+	 * is read when registering, which saves startup time and memory for commands that are rarely used.
+	 * Mistakes in path methods are then reported on first use rather than on startup
+	 */
+	public Commands lazy(boolean lazy) {
+		this.lazy = lazy;
+		return this;
+	}
+
+	/**
+	 * Keeps the result of {@link #scan} in the plugin data folder, so the next startup skips the scan and the
+	 * reflective method lookups while the scanned jars are unchanged. Must be set before scanning
+	 */
+	public Commands cache(boolean cache) {
+		this.cache = cache;
+		return this;
+	}
+
+	/**
+	 * After {@link #registerAll()}, compiles every path method, even in {@link #lazy(boolean) lazy mode}, and
+	 * exercises path matching of every command for up to the provided time, so it is JIT compiled before players
+	 * connect. Command bodies, converters and tab completers are never run
+	 */
+	public Commands warmup(Duration budget) {
+		return warmup(budget, false);
+	}
+
+	/**
+	 * Like {@link #warmup(Duration)}, but with <code>arguments</code> also converts sample arguments and tab completes
+	 * every command. This runs the converters and tab completers of the plugin with the console as the sender,
+	 * on the main thread during startup, so only enable it if they have no side effects such as creating records
+	 */
+	public Commands warmup(Duration budget, boolean arguments) {
+		this.warmup = budget;
+		this.warmupArguments = arguments;
+		return this;
+	}
+
+	/**
+	 * Saves the {@link OfflinePlayerIndex} in the plugin data folder, so it is read back on the next startup
+	 * instead of being built from the server's player data
+	 */
+	public Commands persistOfflinePlayers(boolean persist) {
+		this.persistOfflinePlayers = persist;
+		return this;
+	}
+
+	/**
+	 * Limits how long a tab completion waits for its completers. Completers that run out of time are left out of
+	 * the completions, and are only served from their cached results for a while if it happens repeatedly.
+	 * Completers are also left out when too many are already waiting for a thread, see {@link TabCompleteBudget}
+	 */
+	public Commands tabCompleteBudget(Duration budget) {
+		if (this.tabCompleteBudget != null)
+			this.tabCompleteBudget.shutdown();
+		this.tabCompleteBudget = budget == null || budget.isZero() ? null : new TabCompleteBudget(budget);
+		return this;
+	}
+
 	public Commands additionalConverts(TriFunction<String, Class<?>, CustomCommand, Object> converters) {
 		this.additionalConverters = converters;
 		return this;
@@ -107,7 +218,7 @@ public class Commands {
 
 	public static void debug(String message) {
 		if (debug)
-			getInstance().plugin.getLogger().info("[DEBUG] " + ChatColor.stripColor(message));
+			log(Level.INFO, "[DEBUG] " + message);
 	}
 
 	public static void log(String message) {
@@ -146,16 +257,48 @@ public class Commands {
 		getInstance().plugin.getServer().getPluginManager().registerEvents(listener, getInstance().plugin);
 	}
 
+	/**
+	 * @return registered commands by alias, case-insensitive
+	 */
+	public static Map<String, CustomCommand> getCommands() {
+		return registry().getCommands();
+	}
+
+	public static Map<Class<?>, Converter> getConverters() {
+		return registry().getConverters();
+	}
+
+	public static Map<Class<?>, Completer> getTabCompleters() {
+		return registry().getTabCompleters();
+	}
+
+	public static Map<String, String> getRedirects() {
+		return registry().getRedirects();
+	}
+
+	private static CommandRegistry registry() {
+		return instance == null ? CommandRegistry.EMPTY : instance.registry;
+	}
+
+	/**
+	 * Applies changes to a copy of the registry and publishes it, so readers never see a partial update
+	 */
+	private synchronized void edit(Consumer<CommandRegistry.Builder> changes) {
+		CommandRegistry.Builder builder = registry.toBuilder();
+		changes.accept(builder);
+		registry = builder.build();
+	}
+
 	public static Set<CustomCommand> getUniqueCommands() {
-		return new HashSet<>(commands.values());
+		return new HashSet<>(getCommands().values());
 	}
 
 	public static CustomCommand get(String alias) {
-		return commands.getOrDefault(alias.toLowerCase(), null);
+		return getCommands().get(alias);
 	}
 
 	public static CustomCommand get(Class<? extends CustomCommand> clazz) {
-		return commands.getOrDefault(prettyName(clazz), null);
+		return getCommands().get(prettyName(clazz));
 	}
 
 	public static String prettyName(ICustomCommand customCommand) {
@@ -171,46 +314,126 @@ public class Commands {
 	}
 
 	public static String getPrefix(Class<? extends ICustomCommand> clazz) {
-		return StringUtils.getPrefix(prettyName(clazz));
+		return CommandMetadata.of(clazz).getPrefix();
 	}
 
+	/**
+	 * Registers every scanned command in two phases. The metadata of each command (paths, binding plans, invokers)
+	 * and the converters and tab completers are first built in parallel on the common {@link ForkJoinPool},
+	 * then the commands are created and added to the command map on the calling thread
+	 */
 	public Commands registerAll() {
-		registerConvertersAndTabCompleters();
-		Commands.debug(" Registering " + commandSet.size() + StringUtils.plural(" command", commands.size()));
-		commandSet.forEach(this::register);
-		Commands.log("Registered " + commands.size() + StringUtils.plural(" command", commands.size()));
+		List<Class<? extends CustomCommand>> classes = commandSet.stream().filter(Utils::canEnable).toList();
+		Commands.debug(" Registering " + classes.size() + StringUtils.plural(" command", classes.size()));
+
+		long start = System.nanoTime();
+		List<Consumer<CommandRegistry.Builder>> argumentMethods = prepare(classes);
+		long prepared = System.nanoTime();
+
+		edit(builder -> {
+			argumentMethods.forEach(methods -> methods.accept(builder));
+			for (Class<? extends CustomCommand> clazz : classes)
+				register(clazz, builder);
+		});
+		mapUtils.sync();
+		long registered = System.nanoTime();
+
+		OfflinePlayerIndex.load(persistOfflinePlayers ? new File(plugin.getDataFolder(), "offline-players.index").toPath() : null);
+
+		Commands.log("Registered " + getCommands().size() + StringUtils.plural(" command", getCommands().size()) + " in " + millis(start, registered) + "ms"
+			+ " (metadata: " + millis(start, prepared) + "ms, command map: " + millis(prepared, registered) + "ms)");
+
+		if (warmup != null && !warmup.isZero()) {
+			int passes = CommandWarmup.run(getUniqueCommands(), warmup, warmupArguments);
+			Commands.log("Warmed up commands in " + millis(registered, System.nanoTime()) + "ms (" + passes + StringUtils.plural(" pass", " passes", passes) + ")");
+		}
 		return this;
 	}
 
-	public Commands register(Class<? extends CustomCommand>... customCommands) {
-		for (Class<? extends CustomCommand> clazz : customCommands)
-			try {
-				if (Utils.canEnable(clazz))
-					register(Utils.singletonOf(clazz));
-			} catch (Throwable ex) {
-				plugin.getLogger().info("Error while registering command " + prettyName(clazz));
-				ex.printStackTrace();
+	/**
+	 * Builds the metadata of the commands and resolves the converters and tab completers of every known command,
+	 * including those which cannot be enabled, in parallel.
+	 * Errors in the path methods are logged here, or in {@link #lazy(boolean) lazy mode}, where the path methods
+	 * are left to be compiled on first use, when the command is first run.
+	 * Does not touch the server, nor create the commands, as their constructors may
+	 *
+	 * @param classes the commands to register
+	 * @return the converters and tab completers to register
+	 */
+	private List<Consumer<CommandRegistry.Builder>> prepare(List<Class<? extends CustomCommand>> classes) {
+		Set<Class<?>> registered = new HashSet<>(classes);
+		List<Class<?>> sources = new ArrayList<>(commandSet);
+		sources.add(CustomCommand.class);
+
+		return sources.parallelStream().map(clazz -> {
+			if (registered.contains(clazz)) {
+				CommandMetadata metadata = null;
+				try {
+					metadata = CommandMetadata.of((Class<? extends CustomCommand>) clazz);
+				} catch (Throwable ignore) {
+					// Reported when the command is registered
+				}
+
+				if (metadata != null && !lazy)
+					try {
+						metadata.compilePaths();
+					} catch (Throwable ex) {
+						Commands.warn("Error while compiling the paths of " + prettyName((Class<? extends CustomCommand>) clazz), ex);
+					}
 			}
+
+			return resolveArgumentMethods(clazz);
+		}).toList();
+	}
+
+	private static long millis(long from, long to) {
+		return TimeUnit.NANOSECONDS.toMillis(to - from);
+	}
+
+	/**
+	 * Registers the commands, replacing any previous registration of them, without rescanning.
+	 * Players get the updated command list once all are registered
+	 */
+	public Commands register(Class<? extends CustomCommand>... customCommands) {
+		commandSet.addAll(Arrays.asList(customCommands));
+		edit(builder -> {
+			for (Class<? extends CustomCommand> clazz : customCommands)
+				register(clazz, builder);
+		});
+		mapUtils.sync();
 		return this;
 	}
 
+	private void register(Class<? extends CustomCommand> clazz, CommandRegistry.Builder builder) {
+		try {
+			if (Utils.canEnable(clazz))
+				register(Utils.singletonOf(clazz), builder);
+		} catch (Throwable ex) {
+			plugin.getLogger().info("Error while registering command " + prettyName(clazz));
+			ex.printStackTrace();
+		}
+	}
+
 	private void registerExcept(Class<? extends CustomCommand>... customCommands) {
 		List<Class<? extends CustomCommand>> excluded = Arrays.asList(customCommands);
-		for (Class<? extends CustomCommand> clazz : commandSet)
-			if (!excluded.contains(clazz))
-				register(clazz);
+		register(commandSet.stream().filter(clazz -> !excluded.contains(clazz)).toArray(Class[]::new));
 	}
 
-	private void register(CustomCommand customCommand) {
+	private void register(CustomCommand customCommand, CommandRegistry.Builder builder) {
 		try {
-			for (String alias : customCommand.getAllAliases()) {
-				mapUtils.register(alias, customCommand);
+			CommandMetadata metadata = customCommand.getMetadata();
+			mapUtils.register(customCommand);
 
-				if (customCommand.getClass().getAnnotation(DoubleSlash.class) != null)
+			for (String alias : customCommand.getAllAliases()) {
+				if (metadata.isDoubleSlash())
 					alias = "/" + alias;
 
-				commands.put(alias.toLowerCase(), customCommand);
+				builder.command(alias, customCommand);
 			}
+
+			for (Redirect redirect : metadata.getRedirects())
+				for (String from : redirect.from())
+					builder.redirect(from, redirect.to());
 		} catch (Exception ex) {
 			ex.printStackTrace();
 		}
@@ -218,34 +441,67 @@ public class Commands {
 		Utils.tryRegisterListener(customCommand);
 	}
 
+	/**
+	 * Unregisters every command and clears everything kept about them, so nothing keeps the plugin's classes
+	 * alive once it is disabled. The instance itself stays in place, as tasks that are still running may use it
+	 */
 	public static void unregisterAll() {
-		for (Class<? extends CustomCommand> clazz : getInstance().commandSet)
-			try {
-				getInstance().unregister(clazz);
-			} catch (Throwable ex) {
-				getInstance().plugin.getLogger().info("Error while unregistering command " + prettyName(clazz));
-				ex.printStackTrace();
-			}
+		Commands commands = getInstance();
+		commands.edit(builder -> {
+			for (Class<? extends CustomCommand> clazz : commands.commandSet)
+				try {
+					if (Utils.canEnable(clazz))
+						commands.unregister(Utils.singletonOf(clazz), builder);
+				} catch (Throwable ex) {
+					commands.plugin.getLogger().info("Error while unregistering command " + prettyName(clazz));
+					ex.printStackTrace();
+				}
+		});
+		commands.mapUtils.sync();
+
+		for (Class<? extends CustomCommand> clazz : commands.commandSet)
+			forget(clazz);
+		commands.commandSet.clear();
+		commands.tabCompletionCache.invalidateAll();
+		CustomCommand.resetCompletions();
+		OnlinePlayerIndex.clear();
+		OfflinePlayerIndex.clear();
+		commands.tabCompleteSessions.clear();
+		commands.index = null;
+		commands.registry = CommandRegistry.EMPTY;
+		if (commands.tabCompleteBudget != null) {
+			commands.tabCompleteBudget.shutdown();
+			commands.tabCompleteBudget = null;
+		}
+	}
+
+	/**
+	 * Drops the singleton and the metadata of the command, so they do not keep its class loader alive
+	 */
+	static void forget(Class<? extends CustomCommand> clazz) {
+		Utils.removeSingleton(clazz);
+		CommandMetadata.invalidate(clazz);
 	}
 
 	public void unregister(Class<? extends CustomCommand>... customCommands) {
-		for (Class<? extends CustomCommand> clazz : customCommands)
-			if (Utils.canEnable(clazz))
-				unregister(Utils.singletonOf(clazz));
+		edit(builder -> {
+			for (Class<? extends CustomCommand> clazz : customCommands)
+				if (Utils.canEnable(clazz))
+					unregister(Utils.singletonOf(clazz), builder);
+		});
+		mapUtils.sync();
 	}
 
 	public void unregisterExcept(Class<? extends CustomCommand>... customCommands) {
 		List<Class<? extends CustomCommand>> excluded = Arrays.asList(customCommands);
-		for (Class<? extends CustomCommand> clazz : commandSet)
-			if (!excluded.contains(clazz))
-				unregister(clazz);
+		unregister(commandSet.stream().filter(clazz -> !excluded.contains(clazz)).toArray(Class[]::new));
 	}
 
-	private void unregister(CustomCommand customCommand) {
+	private void unregister(CustomCommand customCommand, CommandRegistry.Builder builder) {
 		try {
-			mapUtils.unregister(customCommand.getName());
+			mapUtils.unregister(customCommand);
 			for (String alias : customCommand.getAllAliases())
-				commands.remove(alias);
+				builder.removeCommand(customCommand.getMetadata().isDoubleSlash() ? "/" + alias : alias);
 		} catch (Exception ex) {
 			ex.printStackTrace();
 		}
@@ -256,28 +512,39 @@ public class Commands {
 		}
 	}
 
-	private void registerConvertersAndTabCompleters() {
-		commandSet.forEach(this::registerTabCompleters);
-		commandSet.forEach(this::registerConverters);
-		registerTabCompleters(CustomCommand.class);
-		registerConverters(CustomCommand.class);
+	/**
+	 * @return a change registering the converters and tab completers declared by the class,
+	 * or none if one of them is invalid
+	 */
+	private Consumer<CommandRegistry.Builder> resolveArgumentMethods(Class<?> clazz) {
+		try {
+			return tryResolveArgumentMethods(clazz);
+		} catch (Exception ex) {
+			Commands.warn("Error while registering converters and tab completers of " + clazz.getSimpleName(), ex);
+			return builder -> {};
+		}
 	}
 
-	private void registerTabCompleters(Class<?> clazz) {
-		methodsAnnotatedWith(clazz, TabCompleterFor.class).forEach(method -> {
-			for (Class<?> classFor : method.getAnnotation(TabCompleterFor.class).value()) {
-				method.setAccessible(true);
-				tabCompleters.put(classFor, method);
-			}
+	private Consumer<CommandRegistry.Builder> tryResolveArgumentMethods(Class<?> clazz) {
+		Map<Class<?>, Completer> tabCompleters = new LinkedHashMap<>();
+		Collection<Method> indexedTabCompleters = index == null ? null : index.getTabCompleters(clazz);
+		(indexedTabCompleters != null ? indexedTabCompleters : methodsAnnotatedWith(clazz, TabCompleterFor.class)).forEach(method -> {
+			Completer completer = new Completer(method);
+			for (Class<?> classFor : method.getAnnotation(TabCompleterFor.class).value())
+				tabCompleters.put(classFor, completer);
 		});
-	}
 
-	private void registerConverters(Class<?> clazz) {
-		methodsAnnotatedWith(clazz, ConverterFor.class).forEach(method -> {
-			for (Class<?> classFor : method.getAnnotation(ConverterFor.class).value()) {
-				method.setAccessible(true);
-				converters.put(classFor, method);
-			}
+		Map<Class<?>, Converter> converters = new LinkedHashMap<>();
+		Collection<Method> indexedConverters = index == null ? null : index.getConverters(clazz);
+		(indexedConverters != null ? indexedConverters : methodsAnnotatedWith(clazz, ConverterFor.class)).forEach(method -> {
+			Converter converter = new Converter(method);
+			for (Class<?> classFor : method.getAnnotation(ConverterFor.class).value())
+				converters.put(classFor, converter);
 		});
+
+		return builder -> {
+			tabCompleters.forEach(builder::tabCompleter);
+			converters.forEach(builder::converter);
+		};
 	}
 }
@@ -0,0 +1,147 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.exceptions.postconfigured.InvalidInputException;
+import gg.projecteden.commands.models.annotations.Arg;
+import gg.projecteden.commands.util.StringUtils;
+import gg.projecteden.commands.util.Utils;
+import lombok.Getter;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.DecimalFormat;
+import java.util.regex.Pattern;
+
+import static gg.projecteden.commands.util.Nullables.isNullOrEmpty;
+import static gg.projecteden.commands.util.StringUtils.camelCase;
+import static gg.projecteden.commands.util.StringUtils.getFormatter;
+
+/**
+ * Validation rules of an {@link Arg}, compiled once per parameter
+ */
+@Getter
+public class ArgConstraint {
+	/**
+	 * Defaults of {@link Arg#min()} and {@link Arg#max()}
+	 */
+	private static final double DEFAULT_MIN = Short.MIN_VALUE;
+	private static final double DEFAULT_MAX = Short.MAX_VALUE;
+
+	private final boolean stripColor;
+	@Nullable
+	private final Pattern regex;
+	@Nullable
+	private final String bypassPermission;
+
+	private final int minLength;
+	private final int maxLength;
+	private final String lengthError;
+
+	/**
+	 * Whether the bounds below are compared as longs rather than doubles
+	 */
+	private final boolean integral;
+	private final long minLong;
+	private final long maxLong;
+	private final double minDouble;
+	private final double maxDouble;
+	@Nullable
+	private final String rangeError;
+
+	/**
+	 * @param arg  the annotation to compile
+	 * @param type the type being converted to, which for collections is {@link Arg#type()}
+	 */
+	public ArgConstraint(Arg arg, Class<?> type) {
+		this.stripColor = arg.stripColor();
+		this.regex = arg.regex().length() > 0 ? Pattern.compile(arg.regex()) : null;
+		this.bypassPermission = isNullOrEmpty(arg.minMaxBypass()) ? null : arg.minMaxBypass();
+
+		boolean defaultMin = arg.min() == DEFAULT_MIN;
+		boolean defaultMax = arg.max() == DEFAULT_MAX;
+
+		this.minLength = (int) Math.ceil(arg.min());
+		this.maxLength = (int) Math.floor(arg.max());
+		DecimalFormat lengthFormatter = getFormatter(Integer.class);
+		String minLengthFormatted = lengthFormatter.format(arg.min());
+		String maxLengthFormatted = lengthFormatter.format(arg.max());
+		if (defaultMin && !defaultMax)
+			this.lengthError = "&e" + maxLengthFormatted + " &ccharacters or shorter";
+		else if (!defaultMin && defaultMax)
+			this.lengthError = "&e" + minLengthFormatted + " &ccharacters or longer";
+		else
+			this.lengthError = "between &e" + minLengthFormatted + " &cand &e" + maxLengthFormatted + " &ccharacters";
+
+		if (!ICustomCommand.isNumber(type)) {
+			this.integral = false;
+			this.minLong = this.maxLong = 0;
+			this.minDouble = this.maxDouble = 0;
+			this.rangeError = null;
+			return;
+		}
+
+		double min = defaultMin ? Utils.getMinValue(type).doubleValue() : arg.min();
+		double max = defaultMax ? Utils.getMaxValue(type).doubleValue() : arg.max();
+
+		Class<?> holder = Utils.getMinMaxHolder(type);
+		this.integral = holder == Integer.class || holder == Short.class || holder == Long.class || holder == Byte.class;
+		this.minLong = defaultMin ? Utils.getMinValue(type).longValue() : (long) Math.ceil(min);
+		this.maxLong = defaultMax ? Utils.getMaxValue(type).longValue() : (long) Math.floor(max);
+		this.minDouble = min;
+		this.maxDouble = max;
+
+		DecimalFormat formatter = getFormatter(type);
+		String minFormatted = formatter.format(arg.min());
+		String maxFormatted = formatter.format(arg.max());
+		if (defaultMin && !defaultMax)
+			this.rangeError = "&e" + maxFormatted + " &cor less";
+		else if (!defaultMin && defaultMax)
+			this.rangeError = "&e" + minFormatted + " &cor greater";
+		else
+			this.rangeError = "between &e" + minFormatted + " &cand &e" + maxFormatted;
+	}
+
+	public boolean canBypass(CommandSender sender) {
+		return bypassPermission != null && sender.hasPermission(bypassPermission);
+	}
+
+	/**
+	 * Applies {@link Arg#stripColor()}, {@link Arg#regex()} and, for non-numeric values, the length bounds
+	 *
+	 * @return the value with color stripped if configured
+	 */
+	public String validateInput(String value, String name, boolean checkLength, CommandSender sender) {
+		if (stripColor)
+			value = StringUtils.stripColor(value);
+
+		if (regex != null)
+			if (!regex.matcher(value).matches())
+				throw new InvalidInputException(camelCase(name) + " must match regex " + regex.pattern());
+
+		if (checkLength && !canBypass(sender))
+			if (value.length() < minLength || value.length() > maxLength)
+				throw new InvalidInputException(camelCase(name) + " length must be " + lengthError);
+
+		return value;
+	}
+
+	/**
+	 * Checks a converted number against {@link Arg#min()} and {@link Arg#max()}, or the bounds of its type
+	 */
+	public void validateRange(Number number, String name, CommandSender sender) {
+		if (rangeError == null || canBypass(sender))
+			return;
+
+		boolean inRange;
+		if (integral) {
+			long value = number.longValue();
+			inRange = value >= minLong && value <= maxLong;
+		} else {
+			double value = number.doubleValue();
+			inRange = value >= minDouble && value <= maxDouble;
+		}
+
+		if (!inRange)
+			throw new InvalidInputException(camelCase(name) + " must be " + rangeError);
+	}
+
+}
@@ -0,0 +1,111 @@
+package gg.projecteden.commands.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits command arguments into tokens in a single pass over the input
+ * <p>
+ * Arguments are separated by single spaces, as Bukkit splits them. A double quote at the start of an argument,
+ * or right after an <code>=</code> (<code>--name="some value"</code>), starts a quoted section which may span
+ * several words and ends at the matching quote. Inside quotes, <code>\"</code> and <code>\\</code> are escapes.
+ * A quote without a match is kept as a regular character.
+ * <p>
+ * Path matching, tab completion and binding all use the same tokens, see {@link gg.projecteden.commands.models.events.CommandEvent#getTokens()}.
+ */
+public final class ArgumentLexer {
+
+	private ArgumentLexer() {}
+
+	public static List<Token> lex(List<String> words) {
+		String line = String.join(" ", words);
+		List<Token> tokens = new ArrayList<>(words.size());
+
+		StringBuilder value = new StringBuilder();
+		int word = 0;
+		int tokenStart = 0;
+		int tokenWord = 0;
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+
+			if (quoted) {
+				if (c == '\\' && i + 1 < line.length() && (line.charAt(i + 1) == '"' || line.charAt(i + 1) == '\\'))
+					value.append(line.charAt(++i));
+				else if (c == '"')
+					quoted = false;
+				else {
+					if (c == ' ')
+						++word;
+					value.append(c);
+				}
+				continue;
+			}
+
+			if (c == ' ') {
+				tokens.add(new Token(value.toString(), line.substring(tokenStart, i), tokenWord, word + 1));
+				value.setLength(0);
+				tokenStart = i + 1;
+				tokenWord = ++word;
+				continue;
+			}
+
+			if (c == '"' && (i == tokenStart || line.charAt(i - 1) == '=') && hasClosingQuote(line, i + 1)) {
+				quoted = true;
+				continue;
+			}
+
+			value.append(c);
+		}
+
+		if (!words.isEmpty())
+			tokens.add(new Token(value.toString(), line.substring(tokenStart), tokenWord, word + 1));
+
+		return tokens;
+	}
+
+	/**
+	 * @return whether a quote opened before <code>from</code> is closed at the end of a word
+	 */
+	private static boolean hasClosingQuote(String line, int from) {
+		for (int i = from; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '\\' && i + 1 < line.length())
+				++i;
+			else if (c == '"')
+				return i + 1 == line.length() || line.charAt(i + 1) == ' ';
+		}
+		return false;
+	}
+
+	@Getter
+	@AllArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+	public static class Token {
+		/**
+		 * The argument with quotes and escapes resolved
+		 */
+		private final String value;
+		/**
+		 * The argument as typed
+		 */
+		private final String raw;
+		/**
+		 * Index of the first word of the token in the input
+		 */
+		private final int start;
+		/**
+		 * Index after the last word of the token in the input
+		 */
+		private final int end;
+
+		@Override
+		public String toString() {
+			return raw;
+		}
+	}
+
+}
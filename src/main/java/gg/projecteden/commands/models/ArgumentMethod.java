@@ -0,0 +1,101 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.exceptions.CustomCommandException;
+import lombok.Getter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * A converter or tab completer method taking the argument and an optional context argument,
+ * called through the generated {@link CommandDispatcher} of its declaring class if it has one,
+ * otherwise through a {@link MethodHandle} bound once at registration
+ */
+@Getter
+public abstract class ArgumentMethod {
+	private static final MethodType TYPE = MethodType.methodType(Object.class, Object.class, String.class, Object.class);
+
+	private final Method method;
+	private final Class<?> declaringClass;
+	/**
+	 * Whether the declaring class is abstract, in which case any command can run the method
+	 */
+	private final boolean shared;
+	/**
+	 * Type of the context argument, or null if the method does not take one
+	 */
+	private final Class<?> contextType;
+	@Getter(lombok.AccessLevel.NONE)
+	private final boolean primitiveContext;
+	@Getter(lombok.AccessLevel.NONE)
+	private final CommandDispatcher dispatcher;
+	@Getter(lombok.AccessLevel.NONE)
+	private final int index;
+	@Getter(lombok.AccessLevel.NONE)
+	private final MethodHandle handle;
+
+	ArgumentMethod(Method method) {
+		this.method = method;
+		this.declaringClass = method.getDeclaringClass();
+		this.shared = Modifier.isAbstract(declaringClass.getModifiers());
+
+		Class<?>[] types = method.getParameterTypes();
+		if (types.length < 1 || types.length > 2)
+			throw new CustomCommandException("Unknown converter parameters in " + method.getName());
+
+		this.contextType = types.length == 2 ? MethodType.methodType(types[1]).wrap().returnType() : null;
+		this.primitiveContext = types.length == 2 && types[1].isPrimitive();
+
+		CommandDispatcher dispatcher = Dispatchers.of(declaringClass);
+		this.index = dispatcher == null ? -1 : dispatcher.indexOf(Dispatchers.signature(method));
+		this.dispatcher = index == -1 ? null : dispatcher;
+		if (this.dispatcher != null) {
+			this.handle = null;
+			return;
+		}
+
+		try {
+			MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			if (Modifier.isStatic(method.getModifiers()))
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			if (types.length == 1)
+				handle = MethodHandles.dropArguments(handle, 2, Object.class);
+
+			this.handle = handle.asType(TYPE);
+		} catch (IllegalAccessException ex) {
+			throw new IllegalStateException("Could not access " + method, ex);
+		}
+	}
+
+	/**
+	 * @return whether the method can run on the provided command, or needs an instance of its declaring class
+	 */
+	public boolean canRunOn(ICustomCommand command) {
+		return shared || declaringClass == command.getClass();
+	}
+
+	Object invoke(ICustomCommand command, String value, Object context) throws InvocationTargetException {
+		if (contextType == null)
+			context = null;
+		else if (context == null ? primitiveContext : !contextType.isInstance(context))
+			throw new IllegalArgumentException("argument type mismatch");
+
+		try {
+			if (dispatcher != null)
+				return contextType == null ? dispatcher.invoke1(index, command, value) : dispatcher.invoke2(index, command, value, context);
+			return handle.invokeExact((Object) command, value, context);
+		} catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return declaringClass.getSimpleName() + "#" + method.getName();
+	}
+
+}
@@ -0,0 +1,154 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.Arg;
+import gg.projecteden.commands.models.annotations.Path;
+import gg.projecteden.commands.models.annotations.Switch;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static gg.projecteden.commands.util.Nullables.isNullOrEmpty;
+
+/**
+ * Immutable plan describing where each parameter of a {@link PathMethod} gets its value from, computed once per method
+ * <p>
+ * Positional parameters fill the start of the argument array in declaration order, followed by the {@link Switch}es
+ */
+@Getter
+public class BindingPlan {
+	/**
+	 * Bound first, since switches consume their arguments before the positional arguments are read
+	 */
+	private final List<Slot> switchSlots;
+	private final List<Slot> pathSlots;
+	/**
+	 * Recognizes the switches, in the order of {@link #switchSlots}
+	 */
+	@Getter(lombok.AccessLevel.PACKAGE)
+	private final SwitchTable switchTable;
+	private final int size;
+
+	BindingPlan(PathMethod method) {
+		List<PathParameter> positional = method.getPositionalParameters();
+		List<PathParameter> switches = method.getSwitches();
+
+		List<Slot> switchSlots = new ArrayList<>();
+		int target = positional.size();
+		for (PathParameter parameter : switches)
+			switchSlots.add(Slot.ofSwitch(parameter, target++));
+
+		List<Slot> pathSlots = new ArrayList<>();
+		Iterator<String> path = method.getPathArgs().iterator();
+		int pathIndex = 0;
+		target = 0;
+		for (PathParameter parameter : positional) {
+			String pathArg = "";
+			while (!pathArg.startsWith("{") && !pathArg.startsWith("[") && !pathArg.startsWith("<") && path.hasNext()) {
+				pathArg = path.next();
+				++pathIndex;
+			}
+
+			pathSlots.add(Slot.ofPath(parameter, target++, pathArg, pathIndex, positional.size()));
+		}
+
+		this.switchSlots = Collections.unmodifiableList(switchSlots);
+		this.pathSlots = Collections.unmodifiableList(pathSlots);
+		this.switchTable = new SwitchTable(switches);
+		this.size = positional.size() + switches.size();
+	}
+
+	public enum Source {
+		/**
+		 * A {@link Switch} anywhere in the arguments
+		 */
+		SWITCH,
+		/**
+		 * A single variable of the {@link Path}
+		 */
+		PATH,
+		/**
+		 * A <code>...</code> variable of the {@link Path}, consuming the rest of the arguments
+		 */
+		REST,
+	}
+
+	@Getter
+	public static class Slot {
+		private final PathParameter parameter;
+		private final Source source;
+		/**
+		 * Index in the argument array
+		 */
+		private final int target;
+		/**
+		 * One-indexed position of the variable in the {@link Path}
+		 */
+		private final int pathIndex;
+		/**
+		 * Name used in error messages
+		 */
+		private final String name;
+		/**
+		 * {@link Arg#value()}, used when the argument is not provided
+		 */
+		@Nullable
+		private final String defaultValue;
+		/**
+		 * Index in the argument array of the {@link Arg#context()} argument, or -1
+		 */
+		private final int contextIndex;
+		@Nullable
+		private final String permission;
+		/**
+		 * Whether the variable is <code>&lt;required&gt;</code>
+		 */
+		private final boolean required;
+		/**
+		 * Whether the variable is <code>[optional]</code>
+		 */
+		private final boolean optional;
+
+		private Slot(PathParameter parameter, Source source, int target, int pathIndex, String name, String defaultValue,
+					 int contextIndex, String permission, boolean required, boolean optional) {
+			this.parameter = parameter;
+			this.source = source;
+			this.target = target;
+			this.pathIndex = pathIndex;
+			this.name = name;
+			this.defaultValue = defaultValue;
+			this.contextIndex = contextIndex;
+			this.permission = permission;
+			this.required = required;
+			this.optional = optional;
+		}
+
+		private static Slot ofSwitch(PathParameter parameter, int target) {
+			Arg arg = parameter.getArg();
+			String defaultValue = arg == null || isNullOrEmpty(arg.value()) ? null : arg.value();
+			return new Slot(parameter, Source.SWITCH, target, -1, parameter.getName(), defaultValue, -1, null, false, false);
+		}
+
+		private static Slot ofPath(PathParameter parameter, int target, String pathArg, int pathIndex, int positionalCount) {
+			Arg arg = parameter.getArg();
+			String defaultValue = arg == null ? null : arg.value();
+			int context = arg == null ? -1 : arg.context();
+			int contextIndex = context > 0 && context <= positionalCount ? context - 1 : -1;
+			String permission = arg == null || isNullOrEmpty(arg.permission()) ? null : arg.permission();
+			String name = pathArg.length() < 2 ? parameter.getName() : pathArg.substring(1, pathArg.length() - 1);
+			Source source = pathArg.contains("...") ? Source.REST : Source.PATH;
+
+			return new Slot(parameter, source, target, pathIndex, name, defaultValue, contextIndex, permission,
+				pathArg.startsWith("<"), pathArg.startsWith("["));
+		}
+
+		@Override
+		public String toString() {
+			return source + " " + parameter + " -> " + target;
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.Stateless;
+import gg.projecteden.commands.models.events.CommandEvent;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Thread-confined access to the event currently being handled
+ * <p>
+ * {@link Stateless} commands share one instance between every invocation, so the event cannot be stored on the command
+ */
+public final class CommandContext {
+	private static final ThreadLocal<CommandEvent> current = new ThreadLocal<>();
+
+	private CommandContext() {}
+
+	/**
+	 * @return the event being handled on this thread, or null if no command is running
+	 */
+	@Nullable
+	public static CommandEvent getEvent() {
+		return current.get();
+	}
+
+	static CommandEvent enter(CommandEvent event) {
+		CommandEvent previous = current.get();
+		current.set(event);
+		return previous;
+	}
+
+	static void exit(CommandEvent previous) {
+		if (previous == null)
+			current.remove();
+		else
+			current.set(previous);
+	}
+
+}
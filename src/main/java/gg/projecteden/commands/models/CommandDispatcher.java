@@ -0,0 +1,50 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.ConverterFor;
+import gg.projecteden.commands.models.annotations.Path;
+import gg.projecteden.commands.models.annotations.TabCompleterFor;
+
+/**
+ * Calls the {@link Path}, {@link ConverterFor} and {@link TabCompleterFor} methods of a command directly,
+ * generated at compile time by <code>commands-api-processor</code> as <code>&lt;command class&gt;$Dispatcher</code>
+ * <p>
+ * Each method is looked up once by its signature, after which a call is a switch followed by a plain call,
+ * without the access checks and argument spreading of reflection. Converters and completers, which take one or two
+ * arguments, are called through {@link #invoke1} and {@link #invoke2} so no argument array is allocated.
+ * Methods missing from the dispatcher are invoked reflectively.
+ */
+public interface CommandDispatcher {
+
+	/**
+	 * @param signature the method name and its parameter types as returned by {@link Class#getTypeName()},
+	 *                  such as <code>give(int,java.lang.String[])</code>
+	 * @return the index of the method, or -1 if the dispatcher cannot call it
+	 */
+	int indexOf(String signature);
+
+	/**
+	 * Calls the method, the arguments must already match its parameter types
+	 *
+	 * @return the value returned by the method, or null if it is void
+	 */
+	Object invoke(int index, Object command, Object[] args) throws Throwable;
+
+	/**
+	 * Calls a method taking one argument, which must already match its parameter type
+	 *
+	 * @return the value returned by the method, or null if it is void
+	 */
+	default Object invoke1(int index, Object command, Object arg) throws Throwable {
+		return invoke(index, command, new Object[] { arg });
+	}
+
+	/**
+	 * Calls a method taking two arguments, which must already match their parameter types
+	 *
+	 * @return the value returned by the method, or null if it is void
+	 */
+	default Object invoke2(int index, Object command, Object arg1, Object arg2) throws Throwable {
+		return invoke(index, command, new Object[] { arg1, arg2 });
+	}
+
+}
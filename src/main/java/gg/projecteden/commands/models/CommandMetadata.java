@@ -0,0 +1,280 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.CommandIndex;
+import gg.projecteden.commands.Commands;
+import gg.projecteden.commands.models.annotations.Aliases;
+import gg.projecteden.commands.models.annotations.Cooldown;
+import gg.projecteden.commands.models.annotations.Description;
+import gg.projecteden.commands.models.annotations.DoubleSlash;
+import gg.projecteden.commands.models.annotations.Fallback;
+import gg.projecteden.commands.models.annotations.Path;
+import gg.projecteden.commands.models.annotations.Permission;
+import gg.projecteden.commands.models.annotations.Redirects.Redirect;
+import gg.projecteden.commands.models.annotations.Stateless;
+import gg.projecteden.commands.models.events.CommandEvent;
+import gg.projecteden.commands.util.StringUtils;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import org.jetbrains.annotations.Nullable;
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+import org.objenesis.instantiator.ObjectInstantiator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static gg.projecteden.commands.util.ReflectionUtils.methodsAnnotatedWith;
+
+/**
+ * Immutable view of everything the framework needs to know about a {@link CustomCommand} class
+ * <p>
+ * Built once per class (normally during {@link Commands#register}) so that dispatch and tab completion
+ * never need to reflect over the command at request time. The {@link Path} methods are compiled
+ * on first use, see {@link Commands#lazy(boolean)}
+ */
+@Getter
+@SuppressWarnings("unchecked")
+public class CommandMetadata {
+	private static final Pattern ALIAS_PATTERN = Pattern.compile("[a-zA-Z\\d_-]+");
+	// Not cached, the cache is keyed by class name and would keep the first class of that name, and its class loader
+	private static final Objenesis OBJENESIS = new ObjenesisStd(false);
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(ICustomCommand.class, CommandEvent.class);
+
+	private static final ClassValue<CommandMetadata> metadata = new ClassValue<>() {
+		@Override
+		protected CommandMetadata computeValue(Class<?> clazz) {
+			return new CommandMetadata((Class<? extends ICustomCommand>) clazz);
+		}
+	};
+
+	private final Class<? extends ICustomCommand> commandClass;
+	private final String name;
+	private final String prefix;
+	private final List<String> aliases;
+	@Nullable
+	private final String permission;
+	@Nullable
+	private final Cooldown cooldown;
+	@Nullable
+	private final String description;
+	@Nullable
+	private final String fallback;
+	private final boolean doubleSlash;
+	private final boolean stateless;
+	private final List<Redirect> redirects;
+	@Getter(lombok.AccessLevel.NONE)
+	private volatile Paths paths;
+	/**
+	 * The <code>(CommandEvent)</code> constructor, or null if the class cannot be constructed
+	 */
+	@Getter(lombok.AccessLevel.NONE)
+	private final MethodHandle constructor;
+	@Getter(lombok.AccessLevel.NONE)
+	private final ObjectInstantiator<? extends ICustomCommand> instantiator;
+
+	public static CommandMetadata of(Class<? extends ICustomCommand> clazz) {
+		return metadata.get(clazz);
+	}
+
+	/**
+	 * Discards the metadata of the class, it is built again on next use
+	 */
+	public static void invalidate(Class<? extends ICustomCommand> clazz) {
+		metadata.remove(clazz);
+	}
+
+	private CommandMetadata(Class<? extends ICustomCommand> clazz) {
+		this.commandClass = clazz;
+		this.name = Commands.prettyName(clazz);
+		this.prefix = StringUtils.getPrefix(name);
+
+		List<String> aliases = new ArrayList<>();
+		Aliases aliasesAnnotation = clazz.getAnnotation(Aliases.class);
+		if (aliasesAnnotation != null)
+			for (String alias : aliasesAnnotation.value()) {
+				if (!ALIAS_PATTERN.matcher(alias).matches()) {
+					Commands.warn("Alias invalid: " + name + "Command.java / " + alias);
+					continue;
+				}
+
+				aliases.add(alias);
+			}
+		this.aliases = Collections.unmodifiableList(aliases);
+
+		Permission permission = clazz.getAnnotation(Permission.class);
+		this.permission = permission == null ? null : permission.value();
+		this.cooldown = clazz.getAnnotation(Cooldown.class);
+		Description description = clazz.getAnnotation(Description.class);
+		this.description = description == null ? null : description.value();
+		Fallback fallback = clazz.getAnnotation(Fallback.class);
+		this.fallback = fallback == null ? null : fallback.value();
+		this.doubleSlash = clazz.getAnnotation(DoubleSlash.class) != null;
+		this.stateless = clazz.getAnnotation(Stateless.class) != null;
+		if (stateless)
+			checkStateless(clazz);
+		this.redirects = List.of(clazz.getAnnotationsByType(Redirect.class));
+
+		if (Modifier.isAbstract(clazz.getModifiers())) {
+			this.constructor = null;
+			this.instantiator = null;
+		} else {
+			this.constructor = findConstructor(clazz);
+			this.instantiator = OBJENESIS.getInstantiatorOf(clazz);
+		}
+	}
+
+	/**
+	 * Creates a new instance of the command to handle the provided event
+	 */
+	@SneakyThrows
+	public ICustomCommand newCommand(CommandEvent event) {
+		if (constructor == null)
+			throw new IllegalStateException(commandClass.getName() + " does not declare a (CommandEvent) constructor");
+
+		return (ICustomCommand) constructor.invokeExact(event);
+	}
+
+	/**
+	 * Creates an instance of the command without running any constructor or field initializers
+	 */
+	public ICustomCommand allocate() {
+		if (instantiator == null)
+			throw new IllegalStateException("Cannot instantiate abstract command " + commandClass.getName());
+
+		return instantiator.newInstance();
+	}
+
+	private static void checkStateless(Class<?> clazz) {
+		for (Class<?> superclass = clazz; superclass != CustomCommand.class && superclass != ICustomCommand.class; superclass = superclass.getSuperclass())
+			for (Field field : superclass.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && !field.isSynthetic())
+					throw new IllegalStateException("@Stateless command " + clazz.getSimpleName() + " declares mutable field " + superclass.getSimpleName() + "#" + field.getName());
+			}
+	}
+
+	private static MethodHandle findConstructor(Class<?> clazz) {
+		try {
+			Constructor<?> constructor = clazz.getDeclaredConstructor(CommandEvent.class);
+			constructor.setAccessible(true);
+			return MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+		} catch (NoSuchMethodException | IllegalAccessException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return every {@link Path} method of the command, including disabled ones
+	 */
+	public List<PathMethod> getPathMethods() {
+		return paths().pathMethods;
+	}
+
+	public PathTree getTree() {
+		return paths().tree;
+	}
+
+	/**
+	 * @param method a {@link Path} method of this command
+	 * @return the compiled metadata for the method, or null if it is not a path method of this command
+	 */
+	public PathMethod get(Method method) {
+		return paths().byMethod.get(method);
+	}
+
+	/**
+	 * @return the distinct permissions checked while completing the command, on the command, its paths and their arguments
+	 */
+	public List<String> getPermissions() {
+		return paths().permissions;
+	}
+
+	/**
+	 * Compiles the {@link Path} methods now instead of on first use
+	 */
+	public void compilePaths() {
+		paths();
+	}
+
+	private Paths paths() {
+		Paths paths = this.paths;
+		if (paths == null)
+			synchronized (this) {
+				paths = this.paths;
+				if (paths == null)
+					this.paths = paths = new Paths(this);
+			}
+		return paths;
+	}
+
+	/**
+	 * The compiled {@link Path} methods, published as a whole once built
+	 */
+	private static class Paths {
+		private final List<PathMethod> pathMethods;
+		private final Map<Method, PathMethod> byMethod;
+		private final PathTree tree;
+		private final List<String> permissions;
+
+		private Paths(CommandMetadata command) {
+			List<PathMethod> pathMethods = new ArrayList<>();
+			Map<Method, PathMethod> byMethod = new HashMap<>();
+			Set<String> permissions = new LinkedHashSet<>();
+			if (command.permission != null)
+				permissions.add(command.permission);
+
+			for (Method method : resolvePathMethods(command.commandClass)) {
+				PathMethod pathMethod = new PathMethod(command, method);
+				pathMethods.add(pathMethod);
+				byMethod.put(method, pathMethod);
+
+				if (pathMethod.getPermission() != null)
+					permissions.add(pathMethod.getPermission());
+				if (pathMethod.getTabCompleteIgnore() != null)
+					permissions.add(pathMethod.getTabCompleteIgnore().permission());
+				for (PathParameter parameter : pathMethod.getParameters())
+					if (parameter.getArg() != null)
+						permissions.add(parameter.getArg().permission());
+			}
+			permissions.remove("");
+
+			this.pathMethods = Collections.unmodifiableList(pathMethods);
+			this.byMethod = Collections.unmodifiableMap(byMethod);
+			this.tree = new PathTree(pathMethods);
+			this.permissions = List.copyOf(permissions);
+		}
+	}
+
+	private static List<Method> resolvePathMethods(Class<?> clazz) {
+		CommandIndex index = Commands.getInstance() == null ? null : Commands.getInstance().getIndex();
+		List<Method> indexed = index == null ? null : index.getPathMethods(clazz);
+
+		final Map<String, Method> overridden = new HashMap<>();
+
+		(indexed != null ? indexed : methodsAnnotatedWith(clazz, Path.class)).forEach(method -> {
+			String key = method.getName() + "(" + Arrays.stream(method.getParameterTypes()).map(Class::getName).collect(Collectors.joining(",")) + ")";
+			if (!overridden.containsKey(key))
+				overridden.put(key, method);
+			else if (overridden.get(key).getDeclaringClass().isAssignableFrom(method.getDeclaringClass()))
+				overridden.put(key, method);
+		});
+
+		return new ArrayList<>(overridden.values());
+	}
+
+}
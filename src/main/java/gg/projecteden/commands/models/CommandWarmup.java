@@ -0,0 +1,140 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.events.CommandEvent;
+import gg.projecteden.commands.models.events.CommandRunEvent;
+import gg.projecteden.commands.models.events.CommandTabEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiles the paths of the registered commands and drives their path matching with a silent console sender,
+ * so the JIT has compiled them before players connect. Command bodies are never run.
+ * <p>
+ * Argument conversion and tab completion call the converters and tab completers of the plugin, which may have side
+ * effects such as database lookups, so they are only driven as well when asked to.
+ */
+public final class CommandWarmup {
+	private static final String SAMPLE_VALUE = "0";
+
+	private CommandWarmup() {}
+
+	/**
+	 * Compiles the paths of every command, then repeats over them until the budget runs out
+	 *
+	 * @param arguments whether to also run the converters and tab completers with sample arguments
+	 * @return the number of completed passes over all commands
+	 */
+	public static int run(Collection<CustomCommand> commands, Duration budget, boolean arguments) {
+		long deadline = System.nanoTime() + budget.toNanos();
+		for (CustomCommand command : commands)
+			try {
+				// Builds the path tree, binding plans, switch tables and invokers
+				command.getMetadata().compilePaths();
+			} catch (Throwable ignore) {
+				// Reported when the command is first run
+			}
+
+		CommandSender sender = silentConsole();
+		int passes = 0;
+
+		while (System.nanoTime() < deadline) {
+			boolean any = false;
+			for (CustomCommand command : commands)
+				for (PathMethod method : command.getMetadata().getPathMethods()) {
+					if (System.nanoTime() >= deadline)
+						return passes;
+
+					warmup(command, method, sender, arguments);
+					any = true;
+				}
+
+			if (!any)
+				break;
+
+			++passes;
+		}
+
+		return passes;
+	}
+
+	private static void warmup(CustomCommand command, PathMethod method, CommandSender sender, boolean arguments) {
+		List<String> args = sampleArgs(method);
+
+		CommandRunEvent run = new CommandRunEvent(sender, command, command.getName(), new ArrayList<>(args), args) {
+			@Override
+			public void handleException(Throwable ex) {}
+		};
+
+		CommandEvent previous = CommandContext.enter(run);
+		try {
+			PathMethod matched = new PathParser(run).match();
+			if (matched != null && arguments)
+				command.getMethodParameters(matched, run, false);
+		} catch (Throwable ignore) {
+			// Sample arguments rarely convert, only the code paths matter
+		} finally {
+			CommandContext.exit(previous);
+		}
+
+		if (!arguments)
+			return;
+
+		for (int i = 0; i <= args.size(); i++) {
+			List<String> partial = new ArrayList<>(args.subList(0, i));
+			partial.add("");
+
+			try {
+				command.tabComplete(new CommandTabEvent(sender, command, command.getName(), partial, Collections.unmodifiableList(partial)) {
+					@Override
+					public void handleException(Throwable ex) {}
+				});
+			} catch (Throwable ignore) {}
+		}
+	}
+
+	/**
+	 * @return the literal words of the path, with the first option of alternations and a placeholder for variables
+	 */
+	private static List<String> sampleArgs(PathMethod method) {
+		List<String> args = new ArrayList<>();
+		for (String word : method.getPathArgs()) {
+			if (word.isEmpty())
+				continue;
+
+			if (word.startsWith("<") || word.startsWith("[") || word.startsWith("{"))
+				args.add(SAMPLE_VALUE);
+			else if (word.startsWith("(") && word.endsWith(")"))
+				args.add(word.substring(1, word.length() - 1).split("\\|")[0]);
+			else
+				args.add(word);
+		}
+		return args;
+	}
+
+	/**
+	 * @return the console, without sending it any message
+	 */
+	private static CommandSender silentConsole() {
+		ConsoleCommandSender console = Bukkit.getConsoleSender();
+		return (CommandSender) Proxy.newProxyInstance(CommandWarmup.class.getClassLoader(), new Class<?>[] { ConsoleCommandSender.class }, (proxy, method, args) -> {
+			if (method.getName().startsWith("send"))
+				return null;
+
+			try {
+				return method.invoke(console, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+		});
+	}
+
+}
@@ -0,0 +1,67 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.CacheCompletions;
+import gg.projecteden.commands.models.annotations.TabCompleterFor;
+import lombok.Getter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiled {@link TabCompleterFor} method
+ */
+@Getter
+public class Completer extends ArgumentMethod {
+	/**
+	 * The classes the method completes
+	 */
+	private final List<Class<?>> types;
+	/**
+	 * How long results stay in the {@link TabCompletionCache} in nanoseconds, or 0 if they are not cached
+	 */
+	private final long cacheTtl;
+	private final boolean cachePerSender;
+	/**
+	 * Whether the completions can be narrowed as the argument is typed, see {@link TabCompleteSessions}.
+	 * Completions cached per sender depend on more than the argument and are never narrowed
+	 */
+	private final boolean narrowable;
+	/**
+	 * Consecutive runs that did not finish within the tab completion budget, see {@link TabCompleteBudget}.
+	 * Counted across every command, argument and sender the completer is used for
+	 */
+	@Getter(lombok.AccessLevel.NONE)
+	final AtomicInteger timeouts = new AtomicInteger();
+	/**
+	 * {@link System#nanoTime()} until which the completer is skipped for being too slow
+	 */
+	@Getter(lombok.AccessLevel.NONE)
+	volatile long quarantinedUntil;
+
+	public Completer(Method method) {
+		super(method);
+		TabCompleterFor tabCompleterFor = method.getAnnotation(TabCompleterFor.class);
+		this.types = tabCompleterFor == null ? List.of() : List.of(tabCompleterFor.value());
+
+		CacheCompletions cache = method.getAnnotation(CacheCompletions.class);
+		this.cacheTtl = cache == null ? 0 : Duration.ofMillis(cache.value().x(cache.x()) * 50).toNanos();
+		this.cachePerSender = cache != null && cache.perSender();
+		this.narrowable = (tabCompleterFor == null || tabCompleterFor.narrowable()) && !cachePerSender;
+	}
+
+	public boolean isCacheable() {
+		return cacheTtl > 0;
+	}
+
+	/**
+	 * @throws InvocationTargetException if the completer threw an exception
+	 */
+	@SuppressWarnings("unchecked")
+	public List<String> complete(ICustomCommand command, String filter, Object context) throws InvocationTargetException {
+		return (List<String>) invoke(command, filter, context);
+	}
+
+}
@@ -0,0 +1,24 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.ConverterFor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Compiled {@link ConverterFor} method
+ */
+public class Converter extends ArgumentMethod {
+
+	public Converter(Method method) {
+		super(method);
+	}
+
+	/**
+	 * @throws InvocationTargetException if the converter threw an exception
+	 */
+	public Object convert(ICustomCommand command, String value, Object context) throws InvocationTargetException {
+		return invoke(command, value, context);
+	}
+
+}
@@ -10,10 +10,8 @@ import gg.projecteden.commands.exceptions.preconfigured.MustBeIngameException;
 import gg.projecteden.commands.exceptions.preconfigured.NoPermissionException;
 import gg.projecteden.commands.models.annotations.ConverterFor;
 import gg.projecteden.commands.models.annotations.Description;
-import gg.projecteden.commands.models.annotations.Fallback;
-import gg.projecteden.commands.models.annotations.HelpOrder;
-import gg.projecteden.commands.models.annotations.HideFromHelp;
 import gg.projecteden.commands.models.annotations.Path;
+import gg.projecteden.commands.models.annotations.Stateless;
 import gg.projecteden.commands.models.annotations.Switch;
 import gg.projecteden.commands.models.annotations.TabCompleterFor;
 import gg.projecteden.commands.models.events.CommandEvent;
@@ -22,14 +20,16 @@ import gg.projecteden.commands.util.ColorType;
 import gg.projecteden.commands.util.Distance;
 import gg.projecteden.commands.util.ItemUtils;
 import gg.projecteden.commands.util.JsonBuilder;
+import gg.projecteden.commands.util.OfflinePlayerIndex;
+import gg.projecteden.commands.util.OnlinePlayerIndex;
 import gg.projecteden.commands.util.PlayerUtils;
 import gg.projecteden.commands.util.PlayerUtils.OnlinePlayers;
+import gg.projecteden.commands.util.PrefixIndex;
 import gg.projecteden.commands.util.RandomUtils;
 import gg.projecteden.commands.util.SerializationUtils.Json;
 import gg.projecteden.commands.util.StringUtils;
 import gg.projecteden.commands.util.TimeUtils.Timespan;
 import lombok.AllArgsConstructor;
-import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -60,7 +60,6 @@ import org.bukkit.inventory.PlayerInventory;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -92,26 +91,32 @@ import static java.util.stream.Collectors.toList;
 @SuppressWarnings({"SameParameterValue", "unused", "WeakerAccess", "UnusedReturnValue"})
 public abstract class CustomCommand extends ICustomCommand {
 	@NonNull
-	@Getter
 	protected CommandEvent event;
-	public String PREFIX = StringUtils.getPrefix(getName());
+	public String PREFIX = getMetadata().getPrefix();
 
 	public String getPrefix() {
 		return PREFIX;
 	}
 
+	/**
+	 * @return the event this command is handling, read from the {@link CommandContext} for {@link Stateless} commands
+	 */
+	public CommandEvent getEvent() {
+		return event != null ? event : CommandContext.getEvent();
+	}
+
 	public String getAliasUsed() {
-		return event.getAliasUsed();
+		return getEvent().getAliasUsed();
 	}
 
 	public void _shutdown() {}
 
 	protected boolean isCommandEvent() {
-		return event instanceof CommandRunEvent;
+		return getEvent() instanceof CommandRunEvent;
 	}
 
 	protected boolean isPlayerCommandEvent() {
-		return event instanceof CommandRunEvent && isPlayer();
+		return getEvent() instanceof CommandRunEvent && isPlayer();
 	}
 
 	protected String camelCase(Enum<?> _enum) {
@@ -367,18 +372,18 @@ public abstract class CustomCommand extends ICustomCommand {
 
 	@Contract("-> fail")
 	public void showUsage() {
-		error(((CommandRunEvent) event).getUsageMessage());
+		error(((CommandRunEvent) getEvent()).getUsageMessage());
 	}
 
 	protected CommandSender sender() {
-		return event.getSender();
+		return getEvent().getSender();
 	}
 
 	protected Player player() {
 		if (!isPlayer())
 			throw new MustBeIngameException();
 
-		return (Player) event.getSender();
+		return (Player) getEvent().getSender();
 	}
 
 	protected OfflinePlayer offlinePlayer() {
@@ -405,14 +410,14 @@ public abstract class CustomCommand extends ICustomCommand {
 		if (!isConsole())
 			throw new MustBeConsoleException();
 
-		return (ConsoleCommandSender) event.getSender();
+		return (ConsoleCommandSender) getEvent().getSender();
 	}
 
 	protected BlockCommandSender commandBlock() {
 		if (!isCommandBlock())
 			throw new MustBeCommandBlockException();
 
-		return (BlockCommandSender) event.getSender();
+		return (BlockCommandSender) getEvent().getSender();
 	}
 
 	protected boolean isPlayer() {
@@ -495,11 +500,11 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected List<String> args() {
-		return event.getArgs();
+		return getEvent().getArgs();
 	}
 
 	protected void setArgs(List<String> args) {
-		event.setArgs(args);
+		getEvent().setArgs(args);
 	}
 
 	protected String arg(int i) {
@@ -507,17 +512,17 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected String arg(int i, boolean rest) {
-		if (event.getArgs().size() < i) return null;
+		if (getEvent().getArgs().size() < i) return null;
 		if (rest)
-			return String.join(" ", event.getArgs().subList(i - 1, event.getArgs().size()));
+			return String.join(" ", getEvent().getArgs().subList(i - 1, getEvent().getArgs().size()));
 
-		String result = event.getArgs().get(i - 1);
+		String result = getEvent().getArgs().get(i - 1);
 		if (isNullOrEmpty(result)) return null;
 		return result;
 	}
 
 	protected boolean isIntArg(int i) {
-		if (event.getArgs().size() < i) return false;
+		if (getEvent().getArgs().size() < i) return false;
 		return isInt(arg(i));
 	}
 
@@ -539,7 +544,7 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected Integer intArg(int i) {
-		if (event.getArgs().size() < i) return null;
+		if (getEvent().getArgs().size() < i) return null;
 		try {
 			return Integer.parseInt(arg(i));
 		} catch (NumberFormatException ex) {
@@ -548,7 +553,7 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected boolean isDoubleArg(int i) {
-		if (event.getArgs().size() < i) return false;
+		if (getEvent().getArgs().size() < i) return false;
 		return isDouble(arg(i));
 	}
 
@@ -570,7 +575,7 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected Double doubleArg(int i) {
-		if (event.getArgs().size() < i) return null;
+		if (getEvent().getArgs().size() < i) return null;
 		try {
 			return Double.parseDouble(arg(i));
 		} catch (NumberFormatException ex) {
@@ -579,7 +584,7 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected boolean isFloatArg(int i) {
-		if (event.getArgs().size() < i) return false;
+		if (getEvent().getArgs().size() < i) return false;
 		return isFloat(arg(i));
 	}
 
@@ -601,7 +606,7 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected Float floatArg(int i) {
-		if (event.getArgs().size() < i) return null;
+		if (getEvent().getArgs().size() < i) return null;
 		try {
 			return Float.parseFloat(arg(i));
 		} catch (NumberFormatException ex) {
@@ -610,14 +615,14 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected Boolean booleanArg(int i) {
-		if (event.getArgs().size() < i) return null;
+		if (getEvent().getArgs().size() < i) return null;
 		String value = arg(i);
 		if (Arrays.asList("enable", "on", "yes", "1").contains(value.toLowerCase())) value = "true";
 		return Boolean.parseBoolean(value);
 	}
 
 	protected boolean isOfflinePlayerArg(int i) {
-		if (event.getArgs().size() < i) return false;
+		if (getEvent().getArgs().size() < i) return false;
 		try {
 			PlayerUtils.getPlayer(arg(i));
 			return true;
@@ -627,12 +632,12 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected OfflinePlayer offlinePlayerArg(int i) {
-		if (event.getArgs().size() < i) return null;
+		if (getEvent().getArgs().size() < i) return null;
 		return PlayerUtils.getPlayer(arg(i));
 	}
 
 	protected boolean isPlayerArg(int i) {
-		if (event.getArgs().size() < i) return false;
+		if (getEvent().getArgs().size() < i) return false;
 		try {
 			return PlayerUtils.getPlayer(arg(i)).isOnline();
 		} catch (PlayerNotFoundException ex) {
@@ -641,7 +646,7 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected Player playerArg(int i) {
-		if (event.getArgs().size() < i) return null;
+		if (getEvent().getArgs().size() < i) return null;
 		OfflinePlayer player = PlayerUtils.getPlayer(arg(i));
 		if (!player.isOnline())
 			throw new PlayerNotOnlineException(player);
@@ -649,9 +654,9 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	protected void fallback() {
-		Fallback fallback = getClass().getAnnotation(Fallback.class);
+		String fallback = getMetadata().getFallback();
 		if (fallback != null)
-			PlayerUtils.runCommand(sender(), fallback.value() + ":" + event.getAliasUsed() + " " + event.getArgsString());
+			PlayerUtils.runCommand(sender(), fallback + ":" + getEvent().getAliasUsed() + " " + getEvent().getArgsString());
 		else
 			throw new InvalidInputException("Nothing to fallback to");
 	}
@@ -692,11 +697,7 @@ public abstract class CustomCommand extends ICustomCommand {
 
 	@TabCompleterFor(Player.class)
 	public List<String> tabCompletePlayer(String filter) {
-		return OnlinePlayers.getAll().stream()
-				.filter(player -> PlayerUtils.canSee(player(), player))
-				.map(Player::getName)
-				.filter(name -> name.toLowerCase().startsWith(filter.replaceFirst("[pP]:", "").toLowerCase()))
-				.collect(toList());
+		return OnlinePlayerIndex.complete(filter.replaceFirst("[pP]:", ""), isPlayer() ? player() : null);
 	}
 
 	@TabCompleterFor(OfflinePlayer.class)
@@ -705,14 +706,7 @@ public abstract class CustomCommand extends ICustomCommand {
 		if (!online.isEmpty() || filter.length() < 3)
 			return online;
 
-		try {
-			return Arrays.stream(Bukkit.getOfflinePlayers())
-				.map(OfflinePlayer::getName)
-				.filter(name -> name.toLowerCase().startsWith(filter.replaceFirst("[pP]:", "").toLowerCase()))
-				.collect(toList());
-		} catch (InvalidInputException ex) {
-			return Collections.emptyList();
-		}
+		return OfflinePlayerIndex.complete(filter.replaceFirst("[pP]:", ""));
 	}
 
 	@ConverterFor(Location.class)
@@ -797,9 +791,7 @@ public abstract class CustomCommand extends ICustomCommand {
 
 	@TabCompleterFor(Material.class)
 	public List<String> tabCompleteMaterial(String value) {
-		List<String> results = tabCompleteEnum(value, Material.class);
-		results.remove(Material.COMMAND_BLOCK_MINECART.name().toLowerCase());
-		return results;
+		return Completions.get().materials.complete(value);
 	}
 
 	@ConverterFor(ChatColor.class)
@@ -829,10 +821,7 @@ public abstract class CustomCommand extends ICustomCommand {
 
 	@TabCompleterFor(ColorType.class)
 	public List<String> tabCompleteColorType(String filter) {
-		return Arrays.stream(ColorType.values())
-				.map(ColorType::getName)
-				.filter(name -> name.replace(' ', '_').startsWith(filter.toLowerCase()))
-				.collect(toList());
+		return Completions.get().colorTypes.complete(filter);
 	}
 
 	@ConverterFor(LocalDate.class)
@@ -889,22 +878,56 @@ public abstract class CustomCommand extends ICustomCommand {
 	}
 
 	public List<String> getAllEnchants(String filter) {
-		return Arrays.stream(Enchantment.values())
-				.filter(enchantment -> enchantment.getKey().getKey().toLowerCase().startsWith(filter.toLowerCase()))
-				.map(enchantment -> enchantment.getKey().getKey())
-				.collect(toList());
+		return Completions.get().enchants.complete(filter);
 	}
 
 	@TabCompleterFor(LivingEntity.class)
 	public List<String> tabCompleteLivingEntity(String value) {
-		return new ArrayList<>() {{
-			for (EntityType entityType : EntityType.values()) {
+		return Completions.get().livingEntities.complete(value);
+	}
+
+	/**
+	 * Drops the completions of the server's sets of values, such as enchantments, so they are built again on next use
+	 */
+	public static void resetCompletions() {
+		Completions.instance = null;
+	}
+
+	/**
+	 * Completions of the server's sets of values, built on first use and dropped by {@link #resetCompletions()}
+	 */
+	private static class Completions {
+		private static volatile Completions instance;
+
+		private final PrefixIndex materials = PrefixIndex.of(
+			Arrays.stream(Material.values()).filter(material -> material != Material.COMMAND_BLOCK_MINECART).collect(toList()),
+			material -> material.name().toLowerCase(),
+			material -> material.name().toLowerCase());
+
+		private final PrefixIndex colorTypes = PrefixIndex.of(
+			Arrays.asList(ColorType.values()),
+			color -> color.getName().replace(' ', '_'),
+			ColorType::getName);
+
+		private final PrefixIndex enchants = PrefixIndex.of(
+			Arrays.asList(Enchantment.values()),
+			enchantment -> enchantment.getKey().getKey().toLowerCase(),
+			enchantment -> enchantment.getKey().getKey());
+
+		private final PrefixIndex livingEntities = PrefixIndex.of(
+			Arrays.stream(EntityType.values()).filter(entityType -> {
 				Class<? extends Entity> entityClass = entityType.getEntityClass();
-				if (entityClass != null && LivingEntity.class.isAssignableFrom(entityClass))
-					if (entityType.name().toLowerCase().startsWith(value.toLowerCase()))
-						add(entityType.name().toLowerCase());
-			}
-		}};
+				return entityClass != null && LivingEntity.class.isAssignableFrom(entityClass);
+			}).collect(toList()),
+			entityType -> entityType.name().toLowerCase(),
+			entityType -> entityType.name().toLowerCase());
+
+		private static Completions get() {
+			Completions completions = instance;
+			if (completions == null)
+				instance = completions = new Completions();
+			return completions;
+		}
 	}
 
 	protected <T> void paginate(Collection<T> values, BiFunction<T, String, JsonBuilder> formatter, String command, int page) {
@@ -971,36 +994,27 @@ public abstract class CustomCommand extends ICustomCommand {
 			send(PREFIX + "Aliases: " + String.join("&e, &c/", aliases).toLowerCase());
 
 		List<JsonBuilder> lines = new ArrayList<>();
-		final List<Method> methods = getPathMethodsForDisplay(event)
+		final List<PathMethod> methods = getPathMethodsForDisplay(getEvent())
 			.stream()
 			.filter(method -> {
-				Path path = method.getAnnotation(Path.class);
-				HideFromHelp hide = method.getAnnotation(HideFromHelp.class);
-
-				if (hide != null)
+				if (method.isHiddenFromHelp())
 					return false;
 
-				if ("help".equals(path.value()) || "?".equals(path.value()))
+				if ("help".equals(method.getPath()) || "?".equals(method.getPath()))
 					return false;
 
 				return true;
 			}).toList();
 
-		methods.stream().sorted(
-				Comparator.comparing(method -> {
-					if (!method.isAnnotationPresent(HelpOrder.class))
-						return 0;
-					return method.getAnnotation(HelpOrder.class).value();
-				})
-		).forEach(method -> {
-			Path path = method.getAnnotation(Path.class);
-			Description desc = method.getAnnotation(Description.class);
+		methods.stream().sorted(Comparator.comparing(PathMethod::getHelpOrder)).forEach(method -> {
+			String path = method.getPath();
+			String desc = method.getDescription();
 
 			if (methods.size() == 1 && desc == null)
-				desc = this.getClass().getAnnotation(Description.class);
+				desc = getMetadata().getDescription();
 
-			String usage = "/" + getAliasUsed().toLowerCase() + (isNullOrEmpty(path.value()) ? "" : " " + path.value());
-			String description = (desc == null ? "" : " &7- " + desc.value());
+			String usage = "/" + getAliasUsed().toLowerCase() + (isNullOrEmpty(path) ? "" : " " + path);
+			String description = (desc == null ? "" : " &7- " + desc);
 			StringBuilder suggestion = new StringBuilder();
 			for (String word : usage.split(" ")) {
 				if (word.startsWith("[") || word.startsWith("<"))
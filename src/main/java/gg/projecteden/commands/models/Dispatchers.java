@@ -0,0 +1,43 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.Commands;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the generated {@link CommandDispatcher} of a command class, if any
+ */
+final class Dispatchers {
+	private static final String SUFFIX = "$Dispatcher";
+
+	private static final ClassValue<CommandDispatcher> dispatchers = new ClassValue<>() {
+		@Override
+		protected CommandDispatcher computeValue(Class<?> clazz) {
+			try {
+				Class<?> dispatcher = Class.forName(clazz.getName() + SUFFIX, true, clazz.getClassLoader());
+				if (CommandDispatcher.class.isAssignableFrom(dispatcher))
+					return (CommandDispatcher) dispatcher.getDeclaredConstructor().newInstance();
+			} catch (ClassNotFoundException ignore) {
+			} catch (ReflectiveOperationException | LinkageError ex) {
+				Commands.warn("Could not load dispatcher of " + clazz.getSimpleName() + ", falling back to reflection", ex);
+			}
+			return null;
+		}
+	};
+
+	private Dispatchers() {}
+
+	/**
+	 * @return the dispatcher generated for the class, or null
+	 */
+	static CommandDispatcher of(Class<?> clazz) {
+		return dispatchers.get(clazz);
+	}
+
+	static String signature(Method method) {
+		return method.getName() + "(" + Arrays.stream(method.getParameterTypes()).map(Class::getTypeName).collect(Collectors.joining(",")) + ")";
+	}
+
+}
@@ -1,123 +1,123 @@
 package gg.projecteden.commands.models;
 
 import gg.projecteden.commands.Commands;
-import gg.projecteden.commands.exceptions.CustomCommandException;
 import gg.projecteden.commands.exceptions.postconfigured.CommandCooldownException;
 import gg.projecteden.commands.exceptions.postconfigured.InvalidInputException;
 import gg.projecteden.commands.exceptions.postconfigured.PlayerNotFoundException;
 import gg.projecteden.commands.exceptions.postconfigured.PlayerNotOnlineException;
 import gg.projecteden.commands.exceptions.preconfigured.MissingArgumentException;
 import gg.projecteden.commands.exceptions.preconfigured.NoPermissionException;
-import gg.projecteden.commands.models.annotations.Aliases;
+import gg.projecteden.commands.models.ArgumentLexer.Token;
+import gg.projecteden.commands.models.BindingPlan.Slot;
+import gg.projecteden.commands.models.BindingPlan.Source;
 import gg.projecteden.commands.models.annotations.Arg;
-import gg.projecteden.commands.models.annotations.Async;
 import gg.projecteden.commands.models.annotations.Cooldown;
-import gg.projecteden.commands.models.annotations.Disabled;
-import gg.projecteden.commands.models.annotations.Environments;
-import gg.projecteden.commands.models.annotations.Fallback;
-import gg.projecteden.commands.models.annotations.Path;
 import gg.projecteden.commands.models.annotations.Permission;
-import gg.projecteden.commands.models.annotations.Switch;
 import gg.projecteden.commands.models.events.CommandEvent;
 import gg.projecteden.commands.models.events.CommandRunEvent;
 import gg.projecteden.commands.models.events.CommandTabEvent;
-import gg.projecteden.commands.util.Nullables;
 import gg.projecteden.commands.util.PlayerUtils;
-import gg.projecteden.commands.util.StringUtils;
+import gg.projecteden.commands.util.PrefixIndex;
 import gg.projecteden.commands.util.Tasks;
 import gg.projecteden.commands.util.Utils;
 import lombok.SneakyThrows;
-import org.apache.commons.lang3.ArrayUtils;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
-import org.objenesis.ObjenesisStd;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.StringJoiner;
 import java.util.UUID;
+import java.util.WeakHashMap;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static gg.projecteden.commands.models.PathParser.getLiteralWords;
 import static gg.projecteden.commands.models.PathParser.getPathString;
 import static gg.projecteden.commands.util.Nullables.isNullOrEmpty;
-import static gg.projecteden.commands.util.ReflectionUtils.methodsAnnotatedWith;
 import static gg.projecteden.commands.util.StringUtils.COMMA_SPLIT_REGEX;
-import static gg.projecteden.commands.util.StringUtils.camelCase;
-import static gg.projecteden.commands.util.StringUtils.getFormatter;
 import static gg.projecteden.commands.util.Utils.UUID0;
 import static gg.projecteden.commands.util.Utils.asParsableDecimal;
 import static gg.projecteden.commands.util.Utils.getDefaultPrimitiveValue;
-import static gg.projecteden.commands.util.Utils.isBoolean;
 
 @SuppressWarnings("unused")
 public abstract class ICustomCommand {
+	private static final ClassValue<Map<Class<?>, PrefixIndex>> ENUM_INDEXES = new ClassValue<>() {
+		@Override
+		protected Map<Class<?>, PrefixIndex> computeValue(Class<?> clazz) {
+			return Collections.synchronizedMap(new WeakHashMap<>());
+		}
+	};
+
+	/**
+	 * Whether instances of the class have no fields
+	 */
+	private static final ClassValue<Boolean> STATELESS = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass())
+				for (Field field : clazz.getDeclaredFields())
+					if (!Modifier.isStatic(field.getModifiers()))
+						return false;
+			return true;
+		}
+	};
 
 	public void execute(CommandRunEvent event) {
+		CommandEvent previous = CommandContext.enter(event);
 		try {
 			CustomCommand command = getCommand(event);
-			Method method = getMethod(event);
+			PathMethod method = getMethod(event);
 			if (method == null)
 				return;
 			event.setUsage(method);
 			if (!hasPermission(event.getSender(), method))
 				throw new NoPermissionException();
-			checkCooldown(command);
+			checkCooldown(command, method);
 			command.invoke(method, event);
 		} catch (Exception ex) {
 			event.handleException(ex);
+		} finally {
+			CommandContext.exit(previous);
 		}
 	}
 
 	public List<String> tabComplete(CommandTabEvent event) {
+		CommandEvent previous = CommandContext.enter(event);
 		try {
 			getCommand(event);
 			return new PathParser(event).tabComplete(event);
 		} catch (Exception ex) {
 			event.handleException(ex);
+		} finally {
+			CommandContext.exit(previous);
 		}
 		return new ArrayList<>();
 	}
 
+	public CommandMetadata getMetadata() {
+		return CommandMetadata.of(getClass());
+	}
+
 	public String getName() {
-		return Commands.prettyName(this);
+		return getMetadata().getName();
 	}
 
 	public List<String> getAliases() {
-		List<String> aliases = new ArrayList<>();
-
-		for (Annotation annotation : this.getClass().getAnnotations()) {
-			if (annotation instanceof Aliases) {
-				for (String alias : ((Aliases) annotation).value()) {
-					if (!Pattern.compile("[a-zA-Z\\d_-]+").matcher(alias).matches()) {
-						Commands.warn("Alias invalid: " + getName() + "Command.java / " + alias);
-						continue;
-					}
-
-					aliases.add(alias);
-				}
-			}
-		}
-
-		return aliases;
+		return new ArrayList<>(getMetadata().getAliases());
 	}
 
 	public List<String> getAllAliases() {
@@ -126,26 +126,26 @@ public abstract class ICustomCommand {
 		return aliases;
 	}
 
-	private String _getPermission() {
-		if (this.getClass().getAnnotation(Permission.class) != null)
-			return this.getClass().getAnnotation(Permission.class).value();
-		return null;
+	protected void invoke(Method method, CommandRunEvent event) {
+		invoke(getMetadata().get(method), event);
 	}
 
-	protected void invoke(Method method, CommandRunEvent event) {
+	protected void invoke(PathMethod method, CommandRunEvent event) {
 		Runnable function = () -> {
+			CommandEvent previous = CommandContext.enter(event);
 			try {
 				Object[] objects = getMethodParameters(method, event, true);
-				method.setAccessible(true);
 				method.invoke(this, objects);
 				postProcess();
 			} catch (Exception ex) {
 				event.handleException(ex);
+			} finally {
+				CommandContext.exit(previous);
 			}
 		};
 
 		Runnable run = () -> {
-			if (method.getAnnotation(Async.class) != null)
+			if (method.isAsync())
 				Tasks.async(function);
 			else
 				function.run();
@@ -156,102 +156,88 @@ public abstract class ICustomCommand {
 
 	public void postProcess() {}
 
-	Object[] getMethodParameters(Method method, CommandEvent event, boolean doValidation) {
-		Parameter[] allParameters = method.getParameters();
-
-		List<Parameter> switches = new ArrayList<>();
-		List<Parameter> parameters = new ArrayList<>();
+	Object[] getMethodParameters(PathMethod method, CommandEvent event, boolean doValidation) {
+		BindingPlan plan = method.getBindingPlan();
+		Object[] objects = new Object[plan.getSize()];
+		List<Token> tokens = event.getTokens();
 
-		for (Parameter parameter : allParameters)
-			if (parameter.getDeclaredAnnotation(Switch.class) != null)
-				switches.add(parameter);
-			else
-				parameters.add(parameter);
+		if (!plan.getSwitchSlots().isEmpty())
+			tokens = bindSwitches(plan, tokens, objects, event);
 
-		Object[] convertedSwitches = convertSwitches(method, event, doValidation, switches);
-		Object[] convertedParameters = convertParameters(method, event, doValidation, parameters);
+		for (Slot slot : plan.getPathSlots())
+			objects[slot.getTarget()] = bindPathArg(slot, tokens, objects, event, doValidation);
 
-		return new ArrayList<>() {{
-			addAll(Arrays.asList(convertedParameters));
-			addAll(Arrays.asList(convertedSwitches));
-		}}.toArray(Object[]::new);
+		return objects;
 	}
 
-	private Object[] convertSwitches(Method method, CommandEvent event, boolean doValidation, List<Parameter> switches) {
-		Object[] objects = new Object[switches.size()];
-
-		List<String> args = new ArrayList<>(event.getArgs());
-
-		int i = 0;
-		for (Parameter parameter : switches) {
-			Arg annotation = parameter.getDeclaredAnnotation(Arg.class);
-			String defaultValue = annotation == null || isNullOrEmpty(annotation.value()) ? null : annotation.value();
-
-			Pattern pattern = CustomCommand.getSwitchPattern(parameter);
-
-			boolean found = false;
-			for (String arg : args) {
-				Matcher matcher = pattern.matcher(arg);
-
-				if (matcher.find()) {
-					found = true;
-					String group = matcher.group();
-					String value = isBoolean(parameter) ? "true" : defaultValue;
-					if (group.contains("="))
-						value = group.split("=", 2)[1];
-
-					objects[i] = convert(value, null, parameter.getType(), parameter, parameter.getName(), event, false);
+	/**
+	 * Converts the switches found in the tokens and removes them from the event arguments
+	 *
+	 * @return the remaining tokens
+	 */
+	private List<Token> bindSwitches(BindingPlan plan, List<Token> tokens, Object[] objects, CommandEvent event) {
+		List<Slot> slots = plan.getSwitchSlots();
+		boolean[] found = new boolean[slots.size()];
+		List<Token> remaining = new ArrayList<>(tokens.size());
+		List<String> args = event.getArgs();
+		int removed = 0;
 
-					event.getArgs().remove(arg);
-				}
+		for (Token token : tokens) {
+			int index = plan.getSwitchTable().match(token.getValue());
+			if (index == -1) {
+				remaining.add(token);
+				continue;
 			}
 
-			if (objects[i] == null && parameter.getType().isPrimitive())
-				objects[i] = getDefaultPrimitiveValue(parameter.getType());
+			Slot slot = slots.get(index);
+			PathParameter parameter = slot.getParameter();
+			String value = SwitchTable.getValue(token.getValue());
+			if (value == null)
+				value = parameter.isBoolean() ? "true" : slot.getDefaultValue();
 
-			if (!found && !isNullOrEmpty(defaultValue))
-				objects[i] = convert(defaultValue, null, parameter.getType(), parameter, parameter.getName(), event, false);
+			found[index] = true;
+			objects[slot.getTarget()] = convert(value, null, parameter.getType(), parameter, slot.getName(), event, false);
 
-			i++;
+			args.subList(token.getStart() - removed, token.getEnd() - removed).clear();
+			removed += token.getEnd() - token.getStart();
 		}
-		return objects;
-	}
 
-	private Object[] convertParameters(Method method, CommandEvent event, boolean doValidation, List<Parameter> parameters) {
-		Object[] objects = new Object[parameters.size()];
-		List<String> args = event.getArgs();
-		String pathValue = method.getAnnotation(Path.class).value();
-		Iterator<String> path = Arrays.asList(pathValue.split(" ")).iterator();
-
-		int i = 0;
-		int pathIndex = 0;
-		for (Parameter parameter : parameters) {
-			String pathArg = "";
-			while (!pathArg.startsWith("{") && !pathArg.startsWith("[") && !pathArg.startsWith("<") && path.hasNext()) {
-				pathArg = path.next();
-				++pathIndex;
-			}
+		for (int i = 0; i < slots.size(); i++) {
+			Slot slot = slots.get(i);
+			PathParameter parameter = slot.getParameter();
 
-			Arg annotation = parameter.getDeclaredAnnotation(Arg.class);
-			String value = (annotation == null ? null : annotation.value());
-			int contextArgIndex = (annotation == null ? -1 : annotation.context());
-			Object contextArg = (contextArgIndex > 0 && objects.length >= contextArgIndex) ? objects[contextArgIndex - 1] : null;
-
-			if (args.size() >= pathIndex) {
-				if (annotation == null || isNullOrEmpty(annotation.permission()) || event.getSender().hasPermission(annotation.permission()))
-					if (pathArg.contains("..."))
-						value = String.join(" ", args.subList(pathIndex - 1, args.size()));
-					else
-						value = args.get(pathIndex - 1);
-			}
+			if (objects[slot.getTarget()] == null && parameter.getType().isPrimitive())
+				objects[slot.getTarget()] = getDefaultPrimitiveValue(parameter.getType());
 
-			boolean required = doValidation && (pathArg.startsWith("<") || (pathArg.startsWith("[") && !isNullOrEmpty(value)));
-			Object converted = convert(value, contextArg, parameter.getType(), parameter, pathArg.substring(1, pathArg.length() - 1), event, required);
-			if (required && converted == null)
-				throw new MissingArgumentException();
-			objects[i++] = converted;
+			if (!found[i] && slot.getDefaultValue() != null)
+				objects[slot.getTarget()] = convert(slot.getDefaultValue(), null, parameter.getType(), parameter, slot.getName(), event, false);
 		}
-		return objects;
+
+		return remaining;
+	}
+
+	private Object bindPathArg(Slot slot, List<Token> tokens, Object[] objects, CommandEvent event, boolean doValidation) {
+		PathParameter parameter = slot.getParameter();
+		int pathIndex = slot.getPathIndex();
+
+		String value = slot.getDefaultValue();
+		Object contextArg = slot.getContextIndex() >= 0 ? objects[slot.getContextIndex()] : null;
+
+		if (tokens.size() >= pathIndex)
+			if (slot.getPermission() == null || event.getSender().hasPermission(slot.getPermission()))
+				if (slot.getSource() == Source.REST) {
+					StringJoiner rest = new StringJoiner(" ");
+					for (Token token : tokens.subList(pathIndex - 1, tokens.size()))
+						rest.add(token.getRaw());
+					value = rest.toString();
+				} else
+					value = tokens.get(pathIndex - 1).getValue();
+
+		boolean required = doValidation && (slot.isRequired() || (slot.isOptional() && !isNullOrEmpty(value)));
+		Object converted = convert(value, contextArg, parameter.getType(), parameter, slot.getName(), event, required);
+		if (required && converted == null)
+			throw new MissingArgumentException();
+		return converted;
 	}
 
 	private static final List<Class<? extends Exception>> conversionExceptions = Arrays.asList(
@@ -262,42 +248,36 @@ public abstract class ICustomCommand {
 
 	@SneakyThrows
 	public Object convert(String value, Object context, Parameter parameter, CommandEvent event, boolean required) {
+		return convert(value, context, pathParameter(parameter), event, required);
+	}
+
+	/**
+	 * @return the compiled parameter from the metadata if it belongs to a path method of this command,
+	 * otherwise one compiled once per parameter
+	 */
+	private PathParameter pathParameter(Parameter parameter) {
+		if (parameter.getDeclaringExecutable() instanceof Method method) {
+			PathMethod pathMethod = getMetadata().get(method);
+			if (pathMethod != null)
+				for (PathParameter pathParameter : pathMethod.getParameters())
+					if (pathParameter.getParameter().equals(parameter))
+						return pathParameter;
+		}
+
+		return PathParameter.of(parameter);
+	}
+
+	public Object convert(String value, Object context, PathParameter parameter, CommandEvent event, boolean required) {
 		return convert(value, context, parameter.getType(), parameter, parameter.getName(), event, required);
 	}
 
 	@SneakyThrows
-	private Object convert(String value, Object context, Class<?> type, Parameter parameter, String name, CommandEvent event, boolean required) {
-		Arg annotation = parameter.getDeclaredAnnotation(Arg.class);
-
-		double argMinDefault = (Double) Arg.class.getDeclaredMethod("min").getDefaultValue();
-		double argMaxDefault = (Double) Arg.class.getDeclaredMethod("max").getDefaultValue();
-
-		if (annotation != null) {
-			if (annotation.stripColor())
-				value = StringUtils.stripColor(value);
-
-			if (annotation.regex().length() > 0)
-				if (!value.matches(annotation.regex()))
-					throw new InvalidInputException(camelCase(name) + " must match regex " + annotation.regex());
-
-			if (!isNumber(type))
-				if (isNullOrEmpty(annotation.minMaxBypass()) || !event.getSender().hasPermission(annotation.minMaxBypass()))
-					if (value.length() < annotation.min() || value.length() > annotation.max()) {
-						DecimalFormat formatter = getFormatter(Integer.class);
-						String min = formatter.format(annotation.min());
-						String max = formatter.format(annotation.max());
-						double minDefault = (Double) Arg.class.getDeclaredMethod("min").getDefaultValue();
-						double maxDefault = (Double) Arg.class.getDeclaredMethod("max").getDefaultValue();
-
-						String error = camelCase(name) + " length must be ";
-						if (annotation.min() == minDefault && annotation.max() != maxDefault)
-							throw new InvalidInputException(error + "&e" + max + " &ccharacters or shorter");
-						else if (annotation.min() != minDefault && annotation.max() == maxDefault)
-							throw new InvalidInputException(error + "&e" + min + " &ccharacters or longer");
-						else
-							throw new InvalidInputException(error + "between &e" + min + " &cand &e" + max + " &ccharacters");
-					}
-		}
+	private Object convert(String value, Object context, Class<?> type, PathParameter parameter, String name, CommandEvent event, boolean required) {
+		Arg annotation = parameter.getArg();
+		ArgConstraint constraint = parameter.getConstraint();
+
+		if (constraint != null)
+			value = constraint.validateInput(value, name, !isNumber(type), event.getSender());
 
 		if (Collection.class.isAssignableFrom(type)) {
 			if (annotation == null)
@@ -313,16 +293,10 @@ public abstract class ICustomCommand {
 		try {
 			CustomCommand command = event.getCommand();
 			if (Commands.getConverters().containsKey(type)) {
-				Method converter = Commands.getConverters().get(type);
-				boolean isAbstract = Modifier.isAbstract(converter.getDeclaringClass().getModifiers());
-				if (!(isAbstract || converter.getDeclaringClass().equals(command.getClass())))
+				Converter converter = Commands.getConverters().get(type);
+				if (!converter.canRunOn(command))
 					command = getNewCommand(command.getEvent(), converter.getDeclaringClass());
-				if (converter.getParameterCount() == 1)
-					return converter.invoke(command, value);
-				else if (converter.getParameterCount() == 2)
-					return converter.invoke(command, value, context);
-				else
-					throw new CustomCommandException("Unknown converter parameters in " + converter.getName());
+				return converter.convert(command, value, context);
 			} else if (type.isEnum()) {
 				return convertToEnum(value, (Class<? extends Enum<?>>) type);
 			}
@@ -367,42 +341,8 @@ public abstract class ICustomCommand {
 			if (BigDecimal.class == type) number = BigDecimal.valueOf(Double.parseDouble(asParsableDecimal(value)));
 
 			if (number != null) {
-				if (annotation != null) {
-					if (isNullOrEmpty(annotation.minMaxBypass()) || !event.getSender().hasPermission(annotation.minMaxBypass())) {
-						double annotationDefaultMin = (Double) Arg.class.getDeclaredMethod("min").getDefaultValue();
-						double annotationDefaultMax = (Double) Arg.class.getDeclaredMethod("max").getDefaultValue();
-
-						double annotationConfiguredMin = annotation.min();
-						double annotationConfiguredMax = annotation.max();
-
-						Number classDefaultMin = Utils.getMinValue(type);
-						Number classDefaultMax = Utils.getMaxValue(type);
-
-						BigDecimal min = (annotationConfiguredMin != annotationDefaultMin ? BigDecimal.valueOf(annotationConfiguredMin) : new BigDecimal(classDefaultMin.toString()));
-						BigDecimal max = (annotationConfiguredMax != annotationDefaultMax ? BigDecimal.valueOf(annotationConfiguredMax) : new BigDecimal(classDefaultMax.toString()));
-
-						int minComparison = BigDecimal.valueOf(number.doubleValue()).compareTo(min);
-						int maxComparison = BigDecimal.valueOf(number.doubleValue()).compareTo(max);
-
-						if (minComparison < 0 || maxComparison > 0) {
-							DecimalFormat formatter = getFormatter(type);
-
-							boolean usingDefaultMin = annotationDefaultMin == annotationConfiguredMin;
-							boolean usingDefaultMax = annotationDefaultMax == annotationConfiguredMax;
-
-							String minFormatted = formatter.format(annotation.min());
-							String maxFormatted = formatter.format(annotation.max());
-
-							String error = camelCase(name) + " must be ";
-							if (usingDefaultMin && !usingDefaultMax)
-								throw new InvalidInputException(error + "&e" + maxFormatted + " &cor less");
-							else if (!usingDefaultMin && usingDefaultMax)
-								throw new InvalidInputException(error + "&e" + minFormatted + " &cor greater");
-							else
-								throw new InvalidInputException(error + "between &e" + minFormatted + " &cand &e" + maxFormatted);
-						}
-					}
-				}
+				if (constraint != null)
+					constraint.validateRange(number, name, event.getSender());
 
 				return number;
 			}
@@ -412,7 +352,7 @@ public abstract class ICustomCommand {
 		return value;
 	}
 
-	private boolean isNumber(Class<?> type) {
+	static boolean isNumber(Class<?> type) {
 		return Integer.class == type || Integer.TYPE == type ||
 				Double.class == type || Double.TYPE == type ||
 				Float.class == type || Float.TYPE == type ||
@@ -422,50 +362,51 @@ public abstract class ICustomCommand {
 				BigDecimal.class == type;
 	}
 
-	@SneakyThrows
 	private CustomCommand getCommand(CommandEvent event) {
-		Constructor<? extends CustomCommand> constructor = event.getCommand().getClass().getDeclaredConstructor(CommandEvent.class);
-		constructor.setAccessible(true);
-		CustomCommand command = constructor.newInstance(event);
+		if (event.getCommand().getMetadata().isStateless())
+			return event.getCommand();
+
+		CustomCommand command = (CustomCommand) event.getCommand().getMetadata().newCommand(event);
 		event.setCommand(command);
 		return command;
 	}
 
-	@SneakyThrows
 	CustomCommand getNewCommand(CommandEvent originalEvent, Class<?> clazz) {
-		CustomCommand customCommand = new ObjenesisStd().newInstance((Class<? extends CustomCommand>) clazz);
-		CommandRunEvent newEvent = new CommandRunEvent(originalEvent.getSender(), customCommand, customCommand.getName(), new ArrayList<>(), new ArrayList<>());
+		CommandMetadata metadata = CommandMetadata.of((Class<? extends ICustomCommand>) clazz);
+		if (metadata.isStateless())
+			return (CustomCommand) Utils.singletonOf(clazz);
+
+		CustomCommand customCommand = (CustomCommand) metadata.allocate();
+		CommandRunEvent newEvent = new CommandRunEvent(originalEvent.getSender(), customCommand, metadata.getName(), new ArrayList<>(), new ArrayList<>());
 		return getCommand(newEvent);
 	}
 
-	List<Method> getPathMethodsForExecution(CommandEvent event) {
-		return getPathMethods(event, Comparator.comparing(method ->
-				Arrays.stream(getLiteralWords(getPathString((Method) method)).split(" "))
-					.filter(Nullables::isNotNullOrEmpty)
-					.count())
-			.thenComparing(method ->
-				Arrays.stream(getPathString((Method) method).split(" "))
-					.filter(Nullables::isNotNullOrEmpty)
-					.count()));
+	List<PathMethod> getPathMethodsForExecution(CommandEvent event) {
+		List<PathMethod> methods = getMetadata().getTree().getMethods();
+		List<PathMethod> filtered = new ArrayList<>();
+		for (PathMethod method : methods)
+			if (hasPermission(event.getSender(), method))
+				filtered.add(method);
+
+		if (methods.size() > 0 && filtered.size() == 0)
+			throw new NoPermissionException();
+
+		return filtered;
 	}
 
 	public static final Comparator<Method> DISPLAY_SORTER = Comparator.comparing(method -> getLiteralWords(getPathString(method)));
 
-	List<Method> getPathMethodsForDisplay(CommandEvent event) {
-		return getPathMethods(event, DISPLAY_SORTER);
+	List<PathMethod> getPathMethodsForDisplay(CommandEvent event) {
+		return getPathMethods(event, Comparator.comparing(PathMethod::getLiteralWords));
 	}
 
-	List<Method> getPathMethods(CommandEvent event, Comparator<? super Method> comparator) {
-		List<Method> methods = getPathMethods();
+	List<PathMethod> getPathMethods(CommandEvent event, Comparator<? super PathMethod> comparator) {
+		List<PathMethod> methods = new ArrayList<>(getMetadata().getPathMethods());
 
 		methods.sort(comparator);
 
-		List<Method> filtered = methods.stream()
-			.filter(method -> method.getAnnotation(Disabled.class) == null)
-			.filter(method -> {
-				final Environments envs = method.getAnnotation(Environments.class);
-				return envs == null || ArrayUtils.contains(envs.value(), Commands.getEnv());
-			})
+		List<PathMethod> filtered = methods.stream()
+			.filter(PathMethod::isEnabled)
 			.filter(method -> hasPermission(event.getSender(), method))
 			.collect(Collectors.toList());
 
@@ -477,26 +418,19 @@ public abstract class ICustomCommand {
 
 	@NotNull
 	public List<Method> getPathMethods() {
-		final Map<String, Method> overridden = new HashMap<>();
-
-		methodsAnnotatedWith(this.getClass(), Path.class).forEach(method -> {
-			String key = method.getName() + "(" + Arrays.stream(method.getParameterTypes()).map(Class::getName).collect(Collectors.joining(",")) + ")";
-			if (!overridden.containsKey(key))
-				overridden.put(key, method);
-			else if (overridden.get(key).getDeclaringClass().isAssignableFrom(method.getDeclaringClass()))
-				overridden.put(key, method);
-		});
-
-		return new ArrayList<>(overridden.values());
+		List<Method> methods = new ArrayList<>();
+		for (PathMethod method : getMetadata().getPathMethods())
+			methods.add(method.getMethod());
+		return methods;
 	}
 
-	private Method getMethod(CommandRunEvent event) {
-		Method method = new PathParser(event).match(event.getArgs());
+	private PathMethod getMethod(CommandRunEvent event) {
+		PathMethod method = new PathParser(event).match();
 
 		if (method == null) {
-			Fallback fallback = event.getCommand().getClass().getAnnotation(Fallback.class);
+			String fallback = getMetadata().getFallback();
 			if (fallback != null)
-				PlayerUtils.runCommand(event.getSender(), fallback.value() + ":" + event.getAliasUsed() + " " + event.getArgsString());
+				PlayerUtils.runCommand(event.getSender(), fallback + ":" + event.getAliasUsed() + " " + event.getArgsString());
 			else if (!event.getArgsString().equalsIgnoreCase("help"))
 				PlayerUtils.runCommand(event.getSender(), event.getAliasUsed() + " help");
 			else
@@ -507,8 +441,11 @@ public abstract class ICustomCommand {
 	}
 
 	boolean hasPermission(CommandSender sender, Method method) {
-		String permission = _getPermission();
+		PathMethod pathMethod = getMetadata().get(method);
+		if (pathMethod != null)
+			return hasPermission(sender, pathMethod);
 
+		String permission = getMetadata().getPermission();
 		if (permission != null && !sender.hasPermission(permission))
 			return false;
 
@@ -518,10 +455,21 @@ public abstract class ICustomCommand {
 		return true;
 	}
 
-	private void checkCooldown(CustomCommand command) {
-		Method method = ((CommandRunEvent) command.getEvent()).getMethod();
-		checkCooldown(command, command.getClass().getAnnotation(Cooldown.class), command.getName());
-		checkCooldown(command, method.getAnnotation(Cooldown.class), command.getName() + "#" + method.getName());
+	boolean hasPermission(CommandSender sender, PathMethod method) {
+		String permission = getMetadata().getPermission();
+
+		if (permission != null && !sender.hasPermission(permission))
+			return false;
+
+		if (method.getPermission() != null)
+			return sender.hasPermission(method.getPermission());
+
+		return true;
+	}
+
+	private void checkCooldown(CustomCommand command, PathMethod method) {
+		checkCooldown(command, getMetadata().getCooldown(), getMetadata().getName());
+		checkCooldown(command, method.getCooldown(), method.getCooldownId());
 	}
 
 	private void checkCooldown(CustomCommand command, Cooldown cooldown, String commandId) {
@@ -561,11 +509,28 @@ public abstract class ICustomCommand {
 		return value -> value.name().toLowerCase().replaceAll(" ", "_");
 	}
 
+	/**
+	 * @return an unmodifiable view of the formatted constants starting with the filter, in alphabetical order
+	 */
 	protected <T extends Enum<?>> List<String> tabCompleteEnum(String filter, Class<? extends T> clazz, Function<T, String> formatter) {
-		return Arrays.stream(clazz.getEnumConstants())
-			.map(formatter)
-			.filter(value -> value.toLowerCase().startsWith(filter.toLowerCase()))
-			.collect(Collectors.toList());
+		return enumIndex(clazz, formatter).complete(filter);
+	}
+
+	/**
+	 * Built once per enum class and formatter class, so a lambda gets the same index every time it is evaluated.
+	 * Formatters holding state, such as lambdas capturing variables, may format differently from one instance
+	 * to the next and are not cached
+	 */
+	private static <T extends Enum<?>> PrefixIndex enumIndex(Class<? extends T> clazz, Function<T, String> formatter) {
+		if (!isStateless(formatter))
+			return PrefixIndex.of(Arrays.asList(clazz.getEnumConstants()), value -> formatter.apply(value).toLowerCase(), formatter);
+
+		return ENUM_INDEXES.get(clazz).computeIfAbsent(formatter.getClass(), $ ->
+			PrefixIndex.of(Arrays.asList(clazz.getEnumConstants()), value -> formatter.apply(value).toLowerCase(), formatter));
+	}
+
+	private static boolean isStateless(Object object) {
+		return STATELESS.get(object.getClass());
 	}
 
 }
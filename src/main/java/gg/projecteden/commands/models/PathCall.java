@@ -0,0 +1,59 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.Path;
+
+/**
+ * Functional interfaces implemented for each {@link Path} method by {@link PathInvoker}, one per number of arguments
+ * <p>
+ * Public because the implementations are defined next to the command class, which can be in any package
+ */
+public final class PathCall {
+
+	private PathCall() {}
+
+	@FunctionalInterface
+	public interface Arity0 {
+		void invoke(Object command) throws Throwable;
+	}
+
+	@FunctionalInterface
+	public interface Arity1 {
+		void invoke(Object command, Object a) throws Throwable;
+	}
+
+	@FunctionalInterface
+	public interface Arity2 {
+		void invoke(Object command, Object a, Object b) throws Throwable;
+	}
+
+	@FunctionalInterface
+	public interface Arity3 {
+		void invoke(Object command, Object a, Object b, Object c) throws Throwable;
+	}
+
+	@FunctionalInterface
+	public interface Arity4 {
+		void invoke(Object command, Object a, Object b, Object c, Object d) throws Throwable;
+	}
+
+	@FunctionalInterface
+	public interface Arity5 {
+		void invoke(Object command, Object a, Object b, Object c, Object d, Object e) throws Throwable;
+	}
+
+	@FunctionalInterface
+	public interface Arity6 {
+		void invoke(Object command, Object a, Object b, Object c, Object d, Object e, Object f) throws Throwable;
+	}
+
+	@FunctionalInterface
+	public interface Arity7 {
+		void invoke(Object command, Object a, Object b, Object c, Object d, Object e, Object f, Object g) throws Throwable;
+	}
+
+	@FunctionalInterface
+	public interface Arity8 {
+		void invoke(Object command, Object a, Object b, Object c, Object d, Object e, Object f, Object g, Object h) throws Throwable;
+	}
+
+}
@@ -0,0 +1,163 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.Commands;
+import gg.projecteden.commands.models.annotations.Path;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invokes a {@link Path} method through the generated {@link CommandDispatcher} of the command if it has one,
+ * otherwise through a {@link PathCall} implemented for the method with {@link LambdaMetafactory}, which casts
+ * each argument to its exact parameter type and calls the method directly. Static methods and methods with more
+ * arguments than {@link PathCall} covers go through a spread {@link MethodHandle} instead
+ * <p>
+ * Behaves like {@link Method#invoke}: bad arguments throw an {@link IllegalArgumentException} and
+ * anything thrown by the method itself is wrapped in an {@link InvocationTargetException}.
+ * The arguments are only checked once a call failed on a cast or an unboxing, so a successful call does not pay for it
+ */
+class PathInvoker {
+	private static final MethodType TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+	private static final Class<?>[] ARITIES = {
+		PathCall.Arity0.class, PathCall.Arity1.class, PathCall.Arity2.class, PathCall.Arity3.class, PathCall.Arity4.class,
+		PathCall.Arity5.class, PathCall.Arity6.class, PathCall.Arity7.class, PathCall.Arity8.class,
+	};
+
+	/**
+	 * Parameter types of the method, with primitives boxed
+	 */
+	private final Class<?>[] types;
+	private final boolean[] primitive;
+	private final CommandDispatcher dispatcher;
+	private final int index;
+	/**
+	 * One of the {@link PathCall} interfaces, or null if the method is called through {@link #handle}
+	 */
+	private final Object call;
+	private final MethodHandle handle;
+
+	PathInvoker(Method method, Class<?> commandClass) {
+		this.types = method.getParameterTypes();
+		this.primitive = new boolean[types.length];
+		for (int i = 0; i < types.length; i++) {
+			primitive[i] = types[i].isPrimitive();
+			if (primitive[i])
+				types[i] = MethodType.methodType(types[i]).wrap().returnType();
+		}
+
+		CommandDispatcher dispatcher = Dispatchers.of(commandClass);
+		this.index = dispatcher == null ? -1 : dispatcher.indexOf(Dispatchers.signature(method));
+		this.dispatcher = index == -1 ? null : dispatcher;
+		if (this.dispatcher != null) {
+			this.call = null;
+			this.handle = null;
+			return;
+		}
+
+		this.call = spin(method, types);
+		if (this.call != null) {
+			this.handle = null;
+			return;
+		}
+
+		try {
+			MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			if (Modifier.isStatic(method.getModifiers()))
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+
+			this.handle = handle.asSpreader(Object[].class, types.length).asType(TYPE);
+		} catch (IllegalAccessException ex) {
+			throw new IllegalStateException("Could not access path method " + method, ex);
+		}
+	}
+
+	/**
+	 * @param types the parameter types of the method, with primitives boxed
+	 * @return an implementation of the {@link PathCall} interface for the number of parameters of the method,
+	 * or null if there is none or it could not be created
+	 */
+	private static Object spin(Method method, Class<?>[] types) {
+		if (Modifier.isStatic(method.getModifiers()) || types.length >= ARITIES.length)
+			return null;
+
+		try {
+			Class<?> declaringClass = method.getDeclaringClass();
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+			MethodType erased = MethodType.genericMethodType(types.length + 1).changeReturnType(void.class);
+			MethodType exact = MethodType.methodType(void.class, declaringClass, types);
+
+			return LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(ARITIES[types.length]),
+				erased, lookup.unreflect(method), exact).getTarget().invoke();
+		} catch (Throwable ex) {
+			Commands.debug("Calling path method " + method + " through a method handle: " + ex.getMessage());
+			return null;
+		}
+	}
+
+	void invoke(Object command, Object[] args) throws InvocationTargetException {
+		if (args.length != types.length)
+			throw new IllegalArgumentException("wrong number of arguments");
+
+		try {
+			if (dispatcher != null)
+				dispatcher.invoke(index, command, args);
+			else if (call != null)
+				call(command, args);
+			else
+				handle.invokeExact(command, args);
+		} catch (ClassCastException | NullPointerException ex) {
+			checkArguments(args);
+			throw new InvocationTargetException(ex);
+		} catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+	private void call(Object command, Object[] args) throws Throwable {
+		switch (args.length) {
+			case 0:
+				((PathCall.Arity0) call).invoke(command);
+				return;
+			case 1:
+				((PathCall.Arity1) call).invoke(command, args[0]);
+				return;
+			case 2:
+				((PathCall.Arity2) call).invoke(command, args[0], args[1]);
+				return;
+			case 3:
+				((PathCall.Arity3) call).invoke(command, args[0], args[1], args[2]);
+				return;
+			case 4:
+				((PathCall.Arity4) call).invoke(command, args[0], args[1], args[2], args[3]);
+				return;
+			case 5:
+				((PathCall.Arity5) call).invoke(command, args[0], args[1], args[2], args[3], args[4]);
+				return;
+			case 6:
+				((PathCall.Arity6) call).invoke(command, args[0], args[1], args[2], args[3], args[4], args[5]);
+				return;
+			case 7:
+				((PathCall.Arity7) call).invoke(command, args[0], args[1], args[2], args[3], args[4], args[5], args[6]);
+				return;
+			default:
+				((PathCall.Arity8) call).invoke(command, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]);
+		}
+	}
+
+	/**
+	 * Tells a cast or unboxing that failed on the arguments apart from one that failed inside the method
+	 *
+	 * @throws IllegalArgumentException if an argument does not match its parameter
+	 */
+	private void checkArguments(Object[] args) {
+		for (int i = 0; i < args.length; i++)
+			if (args[i] == null ? primitive[i] : !types[i].isInstance(args[i]))
+				throw new IllegalArgumentException("argument type mismatch");
+	}
+
+}
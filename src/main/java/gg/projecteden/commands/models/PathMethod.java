@@ -0,0 +1,159 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.Commands;
+import gg.projecteden.commands.models.annotations.Async;
+import gg.projecteden.commands.models.annotations.Cooldown;
+import gg.projecteden.commands.models.annotations.Description;
+import gg.projecteden.commands.models.annotations.Disabled;
+import gg.projecteden.commands.models.annotations.Environments;
+import gg.projecteden.commands.models.annotations.HelpOrder;
+import gg.projecteden.commands.models.annotations.HideFromHelp;
+import gg.projecteden.commands.models.annotations.Path;
+import gg.projecteden.commands.models.annotations.Permission;
+import gg.projecteden.commands.models.annotations.TabCompleteIgnore;
+import lombok.Getter;
+import org.apache.commons.lang3.ArrayUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiled {@link Path} method of a command, see {@link CommandMetadata}
+ */
+@Getter
+public class PathMethod {
+	private final Method method;
+	@Getter(lombok.AccessLevel.NONE)
+	private final PathInvoker invoker;
+	/**
+	 * The raw {@link Path} value
+	 */
+	private final String path;
+	/**
+	 * The lowercase {@link Path} value
+	 */
+	private final String pathString;
+	/**
+	 * The {@link Path} value split on spaces
+	 */
+	private final List<String> pathArgs;
+	private final String literalWords;
+	/**
+	 * Literal words of the path, with each <code>(a|b|c)</code> alternation split into its options
+	 */
+	private final String[][] literals;
+	private final int wordCount;
+	private final int splitLength;
+	private final int requiredArgs;
+
+	@Nullable
+	private final String permission;
+	@Nullable
+	private final Cooldown cooldown;
+	private final String cooldownId;
+	private final boolean async;
+	private final boolean enabled;
+	private final boolean hiddenFromHelp;
+	@Nullable
+	private final String description;
+	private final int helpOrder;
+	@Nullable
+	private final TabCompleteIgnore tabCompleteIgnore;
+
+	/**
+	 * Every parameter of the method, in declaration order
+	 */
+	private final List<PathParameter> parameters;
+	private final List<PathParameter> positionalParameters;
+	private final List<PathParameter> switches;
+	private final BindingPlan bindingPlan;
+
+	PathMethod(CommandMetadata command, Method method) {
+		this.method = method;
+		this.invoker = new PathInvoker(method, command.getCommandClass());
+		this.path = method.getAnnotation(Path.class).value();
+		this.pathString = path.toLowerCase();
+		this.pathArgs = List.of(path.split(" "));
+		this.literalWords = PathParser.getLiteralWords(pathString);
+		this.literals = Arrays.stream(literalWords.split(" "))
+			.filter(word -> !word.isEmpty())
+			.map(PathMethod::getOptions)
+			.toArray(String[][]::new);
+		this.wordCount = (int) Arrays.stream(pathString.split(" ")).filter(word -> !word.isEmpty()).count();
+		this.splitLength = pathString.split(" ").length;
+		this.requiredArgs = PathParser.getRequiredArgs(pathString);
+
+		Permission permission = method.getAnnotation(Permission.class);
+		this.permission = permission == null ? null : permission.value();
+		this.cooldown = method.getAnnotation(Cooldown.class);
+		this.cooldownId = command.getName() + "#" + method.getName();
+		this.async = method.getAnnotation(Async.class) != null;
+
+		final Environments envs = method.getAnnotation(Environments.class);
+		this.enabled = method.getAnnotation(Disabled.class) == null && (envs == null || ArrayUtils.contains(envs.value(), Commands.getEnv()));
+		this.hiddenFromHelp = method.getAnnotation(HideFromHelp.class) != null;
+		Description description = method.getAnnotation(Description.class);
+		this.description = description == null ? null : description.value();
+		HelpOrder helpOrder = method.getAnnotation(HelpOrder.class);
+		this.helpOrder = helpOrder == null ? 0 : helpOrder.value();
+		this.tabCompleteIgnore = method.getAnnotation(TabCompleteIgnore.class);
+
+		List<PathParameter> parameters = new ArrayList<>();
+		List<PathParameter> positionalParameters = new ArrayList<>();
+		List<PathParameter> switches = new ArrayList<>();
+		Parameter[] allParameters = method.getParameters();
+		for (int i = 0; i < allParameters.length; i++) {
+			PathParameter parameter = new PathParameter(allParameters[i], i);
+			parameters.add(parameter);
+			if (parameter.isSwitch())
+				switches.add(parameter);
+			else
+				positionalParameters.add(parameter);
+		}
+
+		this.parameters = Collections.unmodifiableList(parameters);
+		this.positionalParameters = Collections.unmodifiableList(positionalParameters);
+		this.switches = Collections.unmodifiableList(switches);
+		this.bindingPlan = new BindingPlan(this);
+	}
+
+	/**
+	 * Runs the method on the provided command
+	 *
+	 * @throws InvocationTargetException if the method threw an exception
+	 * @throws IllegalArgumentException  if the arguments do not match the method signature
+	 */
+	public void invoke(ICustomCommand command, Object[] args) throws InvocationTargetException {
+		invoker.invoke(command, args);
+	}
+
+	public String getName() {
+		return method.getName();
+	}
+
+	public int getLiteralCount() {
+		return literals.length;
+	}
+
+	public int getParameterCount() {
+		return parameters.size();
+	}
+
+	private static String[] getOptions(String word) {
+		if (word.startsWith("(") && word.endsWith(")"))
+			return word.substring(1, word.length() - 1).split("\\|");
+		return new String[] { word };
+	}
+
+	@Override
+	public String toString() {
+		return method.getDeclaringClass().getSimpleName() + "#" + method.getName() + " \"" + path + "\"";
+	}
+
+}
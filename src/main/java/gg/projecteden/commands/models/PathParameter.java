@@ -0,0 +1,72 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.Arg;
+import gg.projecteden.commands.models.annotations.Switch;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Parameter;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled parameter of a {@link PathMethod}, holding its {@link Arg} and {@link Switch} configuration
+ */
+@Getter
+public class PathParameter {
+	private static final ClassValue<Map<Parameter, PathParameter>> parameters = new ClassValue<>() {
+		@Override
+		protected Map<Parameter, PathParameter> computeValue(Class<?> clazz) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private final Parameter parameter;
+	/**
+	 * Index of the parameter in the method signature, or -1 if it does not belong to a path method
+	 */
+	private final int index;
+	private final String name;
+	private final Class<?> type;
+	@Nullable
+	private final Arg arg;
+	@Nullable
+	private final Switch switchAnnotation;
+	private final boolean list;
+	@Nullable
+	private final ArgConstraint constraint;
+
+	public PathParameter(Parameter parameter, int index) {
+		this.parameter = parameter;
+		this.index = index;
+		this.name = parameter.getName();
+		this.type = parameter.getType();
+		this.arg = parameter.getDeclaredAnnotation(Arg.class);
+		this.switchAnnotation = parameter.getDeclaredAnnotation(Switch.class);
+		this.list = Collection.class.isAssignableFrom(type);
+		this.constraint = arg == null ? null : new ArgConstraint(arg, list ? arg.type() : type);
+	}
+
+	/**
+	 * @return the parameter compiled once, for parameters that do not belong to a path method
+	 */
+	public static PathParameter of(Parameter parameter) {
+		return parameters.get(parameter.getDeclaringExecutable().getDeclaringClass())
+			.computeIfAbsent(parameter, $ -> new PathParameter(parameter, -1));
+	}
+
+	public boolean isSwitch() {
+		return switchAnnotation != null;
+	}
+
+	public boolean isBoolean() {
+		return type == Boolean.class || type == Boolean.TYPE;
+	}
+
+	@Override
+	public String toString() {
+		return type.getSimpleName() + " " + name;
+	}
+
+}
@@ -3,6 +3,7 @@ package gg.projecteden.commands.models;
 import gg.projecteden.commands.Commands;
 import gg.projecteden.commands.exceptions.CustomCommandException;
 import gg.projecteden.commands.exceptions.preconfigured.MissingArgumentException;
+import gg.projecteden.commands.models.ArgumentLexer.Token;
 import gg.projecteden.commands.models.annotations.Arg;
 import gg.projecteden.commands.models.annotations.Path;
 import gg.projecteden.commands.models.annotations.Switch;
@@ -10,7 +11,6 @@ import gg.projecteden.commands.models.annotations.TabCompleteIgnore;
 import gg.projecteden.commands.models.events.CommandEvent;
 import gg.projecteden.commands.models.events.CommandTabEvent;
 import gg.projecteden.commands.util.StringUtils;
-import gg.projecteden.commands.util.Utils;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NonNull;
@@ -18,17 +18,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.ToString;
 import lombok.experimental.Accessors;
+import org.bukkit.entity.Player;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.UUID;
+import java.util.concurrent.Callable;
 
 import static gg.projecteden.commands.util.Nullables.isNullOrEmpty;
 import static java.util.stream.Collectors.toList;
@@ -38,30 +36,28 @@ class PathParser {
 	@NonNull
 	private final CommandEvent event;
 	private final CustomCommand command;
-	private final List<Method> methods;
+	private final List<PathMethod> methods;
 
 	public PathParser(@NonNull CommandEvent event) {
 		this.event = event;
 		this.command = event.getCommand();
-		this.methods = Utils.reverse(command.getPathMethodsForExecution(event));
+		this.methods = command.getPathMethodsForExecution(event);
 	}
 
 	@Data
 	class TabCompleteHelper {
-		private Method method;
+		private PathMethod method;
 		private List<String> pathArgs;
 		private List<String> realArgs;
 		private List<TabCompleteArg> args = new ArrayList<>();
 		private Class<?> finalType;
-		private Method finalTabCompleter;
+		private Completer finalTabCompleter;
 		private Object finalContextArg;
 
-		public TabCompleteHelper(Method method, List<String> realArgs) {
+		public TabCompleteHelper(PathMethod method, List<String> realArgs) {
 			this.method = method;
-			this.method.setAccessible(true);
-
 			this.realArgs = realArgs;
-			this.pathArgs = Arrays.asList(method.getAnnotation(Path.class).value().split(" "));
+			this.pathArgs = method.getPathArgs();
 
 			createArgs();
 		}
@@ -83,14 +79,14 @@ class PathParser {
 					if (arg.getParamIndex() >= method.getParameterCount())
 						throw new MissingArgumentException("Missing arguments for method: " + method.getName());
 
-					Parameter parameter = method.getParameters()[arg.getParamIndex()];
-					Arg annotation = parameter.getAnnotation(Arg.class);
+					PathParameter parameter = method.getParameters().get(arg.getParamIndex());
+					Arg annotation = parameter.getArg();
 					if (annotation != null && !isNullOrEmpty(annotation.permission()))
 						if (!event.getSender().hasPermission(annotation.permission()))
 							break;
 
 					arg.setTabCompleter(parameter.getType());
-					arg.setList(Collection.class.isAssignableFrom(parameter.getType()));
+					arg.setList(parameter.isList());
 					if (annotation != null) {
 						if (annotation.type() != void.class)
 							arg.setTabCompleter(annotation.type());
@@ -161,22 +157,20 @@ class PathParser {
 			if (!lastArg.startsWith("-"))
 				return switches;
 
-			for (Parameter parameter : method.getParameters()) {
-				Arg argAnnotation = parameter.getDeclaredAnnotation(Arg.class);
-				Switch switchAnnotation = parameter.getDeclaredAnnotation(Switch.class);
-				if (switchAnnotation == null)
-					continue;
-
-				Pattern pattern = CustomCommand.getSwitchPattern(parameter);
-				boolean found = false;
-				for (String arg : event.getArgs()) {
-					Matcher matcher = pattern.matcher(arg);
+			boolean[] found = new boolean[method.getSwitches().size()];
+			SwitchTable switchTable = method.getBindingPlan().getSwitchTable();
+			for (String arg : realArgs) {
+				int index = switchTable.match(arg);
+				if (index != -1)
+					found[index] = true;
+			}
 
-					if (matcher.find())
-						found = true;
-				}
+			for (int i = 0; i < method.getSwitches().size(); i++) {
+				PathParameter parameter = method.getSwitches().get(i);
+				Arg argAnnotation = parameter.getArg();
+				Switch switchAnnotation = parameter.getSwitchAnnotation();
 
-				if (!found) {
+				if (!found[i]) {
 					switches.add("--" + parameter.getName());
 					if (switchAnnotation.shorthand() != '-')
 						switches.add("-" + switchAnnotation.shorthand());
@@ -188,7 +182,7 @@ class PathParser {
 					arg.isCompletionIndex(true);
 
 					arg.setTabCompleter(parameter.getType());
-					arg.setList(Collection.class.isAssignableFrom(parameter.getType()));
+					arg.setList(parameter.isList());
 
 					if (argAnnotation != null) {
 						if (!isNullOrEmpty(argAnnotation.permission()))
@@ -218,7 +212,7 @@ class PathParser {
 	@RequiredArgsConstructor
 	class TabCompleteArg {
 		@NonNull
-		private Method method;
+		private PathMethod method;
 		@NonNull
 		private String realArg;
 		private String pathArg;
@@ -228,7 +222,7 @@ class PathParser {
 
 		private Class<?> type;
 		private boolean isList;
-		private Method tabCompleter;
+		private Completer tabCompleter;
 		private Object contextArg;
 
 		@ToString.Include
@@ -289,15 +283,48 @@ class PathParser {
 
 			if (tabCompleter != null) {
 				CustomCommand tabCompleteCommand = command;
-				if (!(tabCompleter.getDeclaringClass().equals(command.getClass()) || Modifier.isAbstract(tabCompleter.getDeclaringClass().getModifiers())))
+				if (!tabCompleter.canRunOn(command))
 					tabCompleteCommand = command.getNewCommand(command.getEvent(), tabCompleter.getDeclaringClass());
 
-				if (tabCompleter.getParameterCount() == 1) {
-					results.addAll((List<String>) tabCompleter.invoke(tabCompleteCommand, realArg.toLowerCase()));
-				} else if (tabCompleter.getParameterCount() == 2)
-					results.addAll((List<String>) tabCompleter.invoke(tabCompleteCommand, realArg.toLowerCase(), contextArg));
-				else
-					throw new CustomCommandException("Unknown converter parameters in " + tabCompleter.getName());
+				final CustomCommand runOn = tabCompleteCommand;
+				final String filter = realArg.toLowerCase();
+				final boolean cacheable = tabCompleter.isCacheable() && contextArg == null && paramIndex != null;
+				final TabCompletionCache cache = Commands.getInstance().getTabCompletionCache();
+
+				Callable<List<String>> completion = () -> cacheable
+					? cache.complete(command, method, paramIndex, tabCompleter, runOn, filter)
+					: tabCompleter.complete(runOn, filter, contextArg);
+
+				// Only once the permissions of the path and of the argument were checked
+				final TabCompleteSessions sessions = Commands.getInstance().getTabCompleteSessions();
+				final UUID uuid = isCompletionIndex && paramIndex != null && tabCompleter.isNarrowable()
+					&& event instanceof CommandTabEvent && event.getSender() instanceof Player player ? player.getUniqueId() : null;
+				final TabCompleteSessions.Key key = uuid == null ? null : new TabCompleteSessions.Key(command.getClass(), method, paramIndex, tabCompleter);
+				final String earlier = uuid == null ? null : getEarlierArgs();
+
+				List<String> narrowed = uuid == null ? null : sessions.narrow(uuid, key, earlier, filter);
+				if (narrowed != null)
+					results.addAll(narrowed);
+				else {
+					// Fresh cached results are served without going through the budget's threads
+					List<String> completed = cacheable ? cache.getFresh(command, method, paramIndex, tabCompleter, filter) : null;
+					if (completed == null) {
+						TabCompleteBudget budget = Commands.getInstance().getTabCompleteBudget();
+						if (budget != null && event instanceof CommandTabEvent tabEvent && tabEvent.getDeadline() != 0)
+							completed = budget.complete(tabEvent, tabCompleter, completion,
+								() -> cacheable ? cache.getLast(command, method, paramIndex, tabCompleter, filter) : null);
+						else
+							completed = completion.call();
+					}
+
+					// Completions that ran out of time are incomplete
+					if (uuid != null && ((CommandTabEvent) event).isPartial())
+						sessions.remove(uuid, key);
+					else if (uuid != null)
+						sessions.update(uuid, key, earlier, filter, completed);
+
+					results.addAll(completed);
+				}
 			} else if (type != null && type.isEnum())
 				results.addAll(command.tabCompleteEnum(realArg.toLowerCase(), (Class<? extends Enum<?>>) type));
 
@@ -318,7 +345,16 @@ class PathParser {
 			return results;
 		}
 
-		void setTabCompleter(Method tabCompleter) {
+		/**
+		 * @return the arguments before this one, and the previous elements of this one if it is a list
+		 */
+		private String getEarlierArgs() {
+			List<String> args = event.getArgs();
+			String earlier = String.join(" ", args.subList(0, Math.max(0, args.size() - 1)));
+			return isList ? earlier + " " + realArg.substring(0, realArg.lastIndexOf(',') + 1) : earlier;
+		}
+
+		void setTabCompleter(Completer tabCompleter) {
 			this.tabCompleter = tabCompleter;
 		}
 
@@ -334,16 +370,17 @@ class PathParser {
 
 	List<String> tabComplete(CommandTabEvent event) {
 		List<String> completions = new ArrayList<>();
+		List<String> args = tokenValues();
 
-		for (Method method : methods) {
+		for (PathMethod method : methods) {
 			if (!event.getCommand().hasPermission(event.getSender(), method))
 				continue;
-			TabCompleteIgnore tabCompleteIgnore = method.getAnnotation(TabCompleteIgnore.class);
+			TabCompleteIgnore tabCompleteIgnore = method.getTabCompleteIgnore();
 			if (tabCompleteIgnore != null)
 				if (isNullOrEmpty(tabCompleteIgnore.permission()) || !event.getSender().hasPermission(tabCompleteIgnore.permission()))
 					continue;
 
-			TabCompleteHelper helper = new TabCompleteHelper(method, event.getArgs());
+			TabCompleteHelper helper = new TabCompleteHelper(method, args);
 			if (!helper.pathMatches())
 				continue;
 
@@ -353,45 +390,18 @@ class PathParser {
 		return completions.stream().distinct().collect(toList());
 	}
 
-	Method match(List<String> args) {
-		String argsString = String.join(" ", args).toLowerCase();
-
-		// Look for exact match
-		for (Method method : methods)
-			if (method.getAnnotation(Path.class).value().equalsIgnoreCase(argsString))
-				return method;
-
-		Method fallback = null;
-
-		for (Method method : methods) {
-			String path = getPathString(method);
-			String literalWords = getLiteralWords(path);
-
-			if (literalWords.length() == 0) {
-				if (args.size() > 0 && path.length() > 0)
-					if (path.split(" ").length <= args.size())
-						return method;
-
-				if (args.size() == 0 && path.length() == 0)
-					return method;
-
-				if (fallback == null) {
-					if (args.size() >= getRequiredArgs(path))
-						fallback = method;
-					else if (args.size() == 0)
-						fallback = method;
-				} else if (args.size() == 0 && getPathString(method).length() < getPathString(fallback).length())
-					fallback = method;
-				continue;
-			}
-
-			// Has arguments, has literal worlds
-			Matcher matcher = Pattern.compile("^" + literalWords + " .*").matcher(argsString + " ");
-			if (matcher.matches())
-				return method;
-		}
+	PathMethod match() {
+		return command.getMetadata().getTree().match(tokenValues(), method -> command.hasPermission(event.getSender(), method));
+	}
 
-		return fallback;
+	/**
+	 * @return the arguments as they are bound, with quoted sections as single arguments
+	 */
+	private List<String> tokenValues() {
+		List<String> values = new ArrayList<>();
+		for (Token token : event.getTokens())
+			values.add(token.getValue());
+		return values;
 	}
 
 	protected static String getPathString(Method method) {
@@ -0,0 +1,123 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.Path;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable dispatch tree compiled from the {@link Path} values of a command
+ * <p>
+ * Every literal word (and every option of a <code>(a|b|c)</code> alternation) is an edge in the tree, and each
+ * path method hangs off the node where its literal words end. Matching arguments is a single walk down the tree.
+ */
+class PathTree {
+	private final Node root = new Node();
+	private final Map<String, List<PathMethod>> exact = new HashMap<>();
+	/**
+	 * Enabled path methods, most specific first
+	 */
+	@Getter
+	private final List<PathMethod> methods;
+
+	PathTree(List<PathMethod> pathMethods) {
+		List<PathMethod> methods = new ArrayList<>();
+		for (PathMethod method : pathMethods)
+			if (method.isEnabled())
+				methods.add(method);
+
+		methods.sort(Comparator.comparingInt(PathMethod::getLiteralCount).thenComparingInt(PathMethod::getWordCount).reversed());
+
+		for (PathMethod method : methods) {
+			exact.computeIfAbsent(method.getPath().toLowerCase(), $ -> new ArrayList<>()).add(method);
+			insert(root, method, 0);
+		}
+
+		this.methods = Collections.unmodifiableList(methods);
+	}
+
+	private void insert(Node node, PathMethod method, int index) {
+		if (index == method.getLiterals().length) {
+			node.methods.add(method);
+			return;
+		}
+
+		for (String option : method.getLiterals()[index])
+			insert(node.children.computeIfAbsent(option, $ -> new Node()), method, index + 1);
+	}
+
+	/**
+	 * Finds the path method which should handle the provided arguments
+	 *
+	 * @param args      arguments supplied to the command
+	 * @param permitted filter for methods the sender is allowed to run
+	 * @return the matched method, or null if none matched
+	 */
+	PathMethod match(List<String> args, Predicate<PathMethod> permitted) {
+		// Look for exact match
+		List<PathMethod> exactMethods = exact.get(String.join(" ", args).toLowerCase());
+		if (exactMethods != null)
+			for (PathMethod method : exactMethods)
+				if (permitted.test(method))
+					return method;
+
+		// Deepest node reached by the literal words wins
+		PathMethod match = null;
+		Node node = root;
+		for (String arg : args) {
+			node = node.children.get(arg.toLowerCase());
+			if (node == null)
+				break;
+
+			PathMethod method = node.first(permitted);
+			if (method != null)
+				match = method;
+		}
+
+		if (match != null)
+			return match;
+
+		// No literal words
+		PathMethod fallback = null;
+		for (PathMethod method : root.methods) {
+			if (!permitted.test(method))
+				continue;
+
+			if (args.size() > 0 && method.getPathString().length() > 0)
+				if (method.getSplitLength() <= args.size())
+					return method;
+
+			if (args.size() == 0 && method.getPathString().length() == 0)
+				return method;
+
+			if (fallback == null) {
+				if (args.size() >= method.getRequiredArgs())
+					fallback = method;
+				else if (args.size() == 0)
+					fallback = method;
+			} else if (args.size() == 0 && method.getPathString().length() < fallback.getPathString().length())
+				fallback = method;
+		}
+
+		return fallback;
+	}
+
+	private static class Node {
+		private final Map<String, Node> children = new HashMap<>();
+		private final List<PathMethod> methods = new ArrayList<>();
+
+		private PathMethod first(Predicate<PathMethod> permitted) {
+			for (PathMethod method : methods)
+				if (permitted.test(method))
+					return method;
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.Switch;
+
+import java.util.List;
+
+/**
+ * Recognizes the {@link Switch}es of a {@link PathMethod}, <code>--name</code> or <code>-x</code>
+ * with an optional <code>=value</code>, without compiling or running any regex
+ */
+class SwitchTable {
+	private final String[] names;
+	private final char[] shorthands;
+
+	SwitchTable(List<PathParameter> switches) {
+		this.names = new String[switches.size()];
+		this.shorthands = new char[switches.size()];
+		for (int i = 0; i < switches.size(); i++) {
+			PathParameter parameter = switches.get(i);
+			names[i] = parameter.getName();
+			shorthands[i] = Character.toLowerCase(parameter.getSwitchAnnotation().shorthand());
+		}
+	}
+
+	boolean isEmpty() {
+		return names.length == 0;
+	}
+
+	/**
+	 * @param arg an argument supplied to the command
+	 * @return the index of the switch the argument sets, or -1
+	 */
+	int match(String arg) {
+		if (arg.length() < 2 || arg.charAt(0) != '-')
+			return -1;
+
+		for (int i = 0; i < names.length; i++) {
+			int end;
+			if (arg.charAt(1) == '-' && arg.regionMatches(true, 2, names[i], 0, names[i].length()))
+				end = 2 + names[i].length();
+			else if (shorthands[i] != '-' && Character.toLowerCase(arg.charAt(1)) == shorthands[i])
+				end = 2;
+			else
+				continue;
+
+			if (arg.length() == end || (arg.charAt(end) == '=' && arg.length() > end + 1))
+				return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @param arg an argument matched by {@link #match(String)}
+	 * @return the value after the <code>=</code>, or null if the switch has none
+	 */
+	static String getValue(String arg) {
+		int index = arg.indexOf('=');
+		return index == -1 ? null : arg.substring(index + 1);
+	}
+
+}
@@ -0,0 +1,130 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.Commands;
+import gg.projecteden.commands.models.events.CommandEvent;
+import gg.projecteden.commands.models.events.CommandTabEvent;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs tab completers on a separate thread and stops waiting for them at the deadline of the tab completion,
+ * see {@link Commands#tabCompleteBudget(Duration)}
+ * <p>
+ * A completer that runs out of time is interrupted. One that does not stop when interrupted finishes in the
+ * background, which still fills the {@link TabCompletionCache} for cacheable completers. After {@link #MAX_TIMEOUTS}
+ * timeouts in a row it is quarantined, and only its last cached results are used until the quarantine ends.
+ * Timeouts are counted per {@link Completer}, so they are shared by every command, argument and sender it completes.
+ * <p>
+ * The threads and the queue of completers waiting for one are bounded. When both are full the completer is skipped
+ * like one that ran out of time, without counting as a timeout.
+ * <p>
+ * Every run goes through the threads, so even a completer that is usually fast cannot stall the tab completion
+ * past its deadline. Only results that are still fresh in the {@link TabCompletionCache} are served on the calling
+ * thread, without reaching the budget.
+ * <p>
+ * Owned by the {@link Commands} instance, which shuts down its threads when unregistering every command.
+ */
+public final class TabCompleteBudget {
+	private static final int MAX_TIMEOUTS = 3;
+	private static final long QUARANTINE = Duration.ofMinutes(1).toNanos();
+	private static final int MAX_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+	private static final int MAX_QUEUED = 64;
+
+	@Getter
+	private final Duration duration;
+	private final ThreadPoolExecutor executor;
+
+	public TabCompleteBudget(Duration duration) {
+		this.duration = duration;
+		this.executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_QUEUED), runnable -> {
+			Thread thread = new Thread(runnable, "Commands tab completion");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * @param completion runs the completer
+	 * @param cached     the last results of the completer, or null
+	 * @return the results of the completer, or its cached results if it did not finish in time
+	 */
+	List<String> complete(CommandTabEvent event, Completer completer, Callable<List<String>> completion, Supplier<List<String>> cached) throws Throwable {
+		long now = System.nanoTime();
+		if (now - completer.quarantinedUntil < 0) {
+			event.setPartial(true);
+			return orEmpty(cached.get());
+		}
+
+		long remaining = event.getDeadline() - now;
+		if (remaining <= 0) {
+			event.setPartial(true);
+			return orEmpty(cached.get());
+		}
+
+		Future<List<String>> future;
+		try {
+			future = executor.submit(() -> {
+				CommandEvent previous = CommandContext.enter(event);
+				try {
+					return completion.call();
+				} finally {
+					CommandContext.exit(previous);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			event.setPartial(true);
+			return orEmpty(cached.get());
+		}
+
+		try {
+			List<String> results = future.get(remaining, TimeUnit.NANOSECONDS);
+			completer.timeouts.set(0);
+			return results;
+		} catch (ExecutionException ex) {
+			throw ex.getCause();
+		} catch (TimeoutException ex) {
+			future.cancel(true);
+			event.setPartial(true);
+			if (completer.timeouts.incrementAndGet() >= MAX_TIMEOUTS)
+				quarantine(completer);
+			return orEmpty(cached.get());
+		}
+	}
+
+	private static void quarantine(Completer completer) {
+		synchronized (completer) {
+			long now = System.nanoTime();
+			// Runs that were already waiting time out together
+			if (now - completer.quarantinedUntil < 0)
+				return;
+
+			completer.timeouts.set(0);
+			completer.quarantinedUntil = now + QUARANTINE;
+		}
+
+		Commands.warn("Tab completer " + completer + " ran out of time " + MAX_TIMEOUTS + " times in a row, "
+			+ "using its cached results for " + Duration.ofNanos(QUARANTINE).toSeconds() + " seconds");
+	}
+
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private static List<String> orEmpty(List<String> results) {
+		return results == null ? Collections.emptyList() : results;
+	}
+
+}
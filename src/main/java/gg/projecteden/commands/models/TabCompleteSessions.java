@@ -0,0 +1,117 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.TabCompleterFor;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The last completions of each argument sent to each player, so that typing more of the same argument filters them
+ * instead of running the completer again
+ * <p>
+ * Narrowing happens per argument, once the path and <code>@Arg</code> permissions were checked. A session is only
+ * reused while the earlier arguments are unchanged, the argument was extended and the player typed within the idle
+ * timeout. It is only narrowed if every previous completion started with the previous argument, since some completers
+ * may not be filtering by prefix. See {@link TabCompleterFor#narrowable()} for completers which cannot be narrowed.
+ */
+public final class TabCompleteSessions {
+	private static final long IDLE_TIMEOUT = Duration.ofSeconds(5).toNanos();
+
+	private final Map<UUID, Map<Key, Session>> sessions = new ConcurrentHashMap<>();
+
+	/**
+	 * @param earlier the arguments before the one being completed
+	 * @return the previous completions that start with the filter, or null if the completer has to run again
+	 */
+	@Nullable
+	List<String> narrow(UUID uuid, Key key, String earlier, String filter) {
+		Map<Key, Session> player = sessions.get(uuid);
+		Session session = player == null ? null : player.get(key);
+		if (session == null)
+			return null;
+
+		if (System.nanoTime() - session.time > IDLE_TIMEOUT
+			|| !session.prefixable
+			|| !session.earlier.equals(earlier)
+			|| !startsWith(filter, session.filter)) {
+			player.remove(key, session);
+			return null;
+		}
+
+		List<String> completions = new ArrayList<>();
+		for (String completion : session.completions)
+			if (startsWith(completion, filter))
+				completions.add(completion);
+
+		// An empty result can make some completers fall back to other sources, let them run
+		if (completions.isEmpty())
+			return null;
+
+		player.put(key, new Session(earlier, filter, completions, true, System.nanoTime()));
+		return new ArrayList<>(completions);
+	}
+
+	void update(UUID uuid, Key key, String earlier, String filter, List<String> completions) {
+		boolean prefixable = !completions.isEmpty();
+		for (String completion : completions)
+			if (!startsWith(completion, filter)) {
+				prefixable = false;
+				break;
+			}
+
+		Map<Key, Session> player = sessions.computeIfAbsent(uuid, $ -> new ConcurrentHashMap<>());
+		long now = System.nanoTime();
+		player.values().removeIf(session -> now - session.time > IDLE_TIMEOUT);
+		player.put(key, new Session(earlier, filter, new ArrayList<>(completions), prefixable, now));
+	}
+
+	void remove(UUID uuid, Key key) {
+		Map<Key, Session> player = sessions.get(uuid);
+		if (player != null)
+			player.remove(key);
+	}
+
+	public void remove(UUID uuid) {
+		sessions.remove(uuid);
+	}
+
+	public void clear() {
+		sessions.clear();
+	}
+
+	private static boolean startsWith(String string, String prefix) {
+		return string.regionMatches(true, 0, prefix, 0, prefix.length());
+	}
+
+	/**
+	 * An argument of a path, completed by a completer
+	 */
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	static class Key {
+		private final Class<?> commandClass;
+		private final PathMethod method;
+		private final int argIndex;
+		private final Completer completer;
+	}
+
+	@AllArgsConstructor
+	private static class Session {
+		/**
+		 * The arguments before the completed one
+		 */
+		private final String earlier;
+		private final String filter;
+		private final List<String> completions;
+		private final boolean prefixable;
+		private final long time;
+	}
+
+}
@@ -0,0 +1,222 @@
+package gg.projecteden.commands.models;
+
+import gg.projecteden.commands.models.annotations.CacheCompletions;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the results of {@link CacheCompletions} tab completers
+ * <p>
+ * Results are keyed by command, path, argument index, typed prefix and a fingerprint of which of the command's
+ * permissions the sender has, and expire after the time set on the annotation. Once full, the least recently
+ * used results are evicted first.
+ * <p>
+ * Concurrent misses for the same key run the completer once, the other callers wait for its results.
+ */
+public class TabCompletionCache {
+	public static final int DEFAULT_MAX_SIZE = 10_000;
+
+	private final Map<Key, Entry> entries;
+	private final Map<Key, CompletableFuture<List<String>>> running = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder staleHits = new LongAdder();
+
+	public TabCompletionCache(int maxSize) {
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @param runOn the command to run the completer on, see {@link Completer#canRunOn}
+	 * @return the cached results of the completer for the argument, which must not take a context argument, running it if they are missing or expired
+	 * @throws InvocationTargetException if the completer threw an exception
+	 */
+	List<String> complete(CustomCommand command, PathMethod method, int argIndex, Completer completer, ICustomCommand runOn, String filter) throws InvocationTargetException {
+		Key key = key(command, method, argIndex, completer, filter);
+
+		List<String> cached = getFresh(key);
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+
+		CompletableFuture<List<String>> future = new CompletableFuture<>();
+		CompletableFuture<List<String>> other = running.putIfAbsent(key, future);
+		if (other != null) {
+			hits.increment();
+			return await(other);
+		}
+
+		try {
+			// Another caller may have stored the results in between
+			List<String> results = getFresh(key);
+			if (results == null) {
+				misses.increment();
+				long now = System.nanoTime();
+				results = Collections.unmodifiableList(new ArrayList<>(completer.complete(runOn, filter, null)));
+				synchronized (entries) {
+					entries.put(key, new Entry(results, now + completer.getCacheTtl()));
+				}
+			} else
+				hits.increment();
+
+			future.complete(results);
+			return results;
+		} catch (Throwable ex) {
+			future.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			running.remove(key, future);
+		}
+	}
+
+	/**
+	 * @return the cached results of the completer for the argument if they have not expired, or null without running it
+	 */
+	@Nullable
+	List<String> getFresh(CustomCommand command, PathMethod method, int argIndex, Completer completer, String filter) {
+		List<String> results = getFresh(key(command, method, argIndex, completer, filter));
+		if (results != null)
+			hits.increment();
+		return results;
+	}
+
+	@Nullable
+	private List<String> getFresh(Key key) {
+		long now = System.nanoTime();
+		synchronized (entries) {
+			Entry entry = entries.get(key);
+			return entry != null && now - entry.expires < 0 ? entry.results : null;
+		}
+	}
+
+	/**
+	 * Waits for the results of a completer run by another caller
+	 */
+	private static List<String> await(CompletableFuture<List<String>> future) throws InvocationTargetException {
+		try {
+			return future.get();
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof InvocationTargetException cause)
+				throw cause;
+			throw new InvocationTargetException(ex.getCause());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+	/**
+	 * @return the last results of the completer for the argument, even if they expired, or null if there are none.
+	 * Counted as stale hits
+	 */
+	@Nullable
+	List<String> getLast(CustomCommand command, PathMethod method, int argIndex, Completer completer, String filter) {
+		Key key = key(command, method, argIndex, completer, filter);
+		synchronized (entries) {
+			Entry entry = entries.get(key);
+			if (entry == null)
+				return null;
+
+			staleHits.increment();
+			return entry.results;
+		}
+	}
+
+	private static Key key(CustomCommand command, PathMethod method, int argIndex, Completer completer, String filter) {
+		CommandSender sender = command.getEvent().getSender();
+		return new Key(command.getClass(), method, argIndex, completer, filter, fingerprint(command, sender), completer.isCachePerSender() ? sender.getName() : null);
+	}
+
+	/**
+	 * @return which of the permissions checked while completing the command the sender has
+	 */
+	private static BitSet fingerprint(CustomCommand command, CommandSender sender) {
+		List<String> permissions = command.getMetadata().getPermissions();
+		BitSet fingerprint = new BitSet(permissions.size());
+		for (int i = 0; i < permissions.size(); i++)
+			if (sender.hasPermission(permissions.get(i)))
+				fingerprint.set(i);
+		return fingerprint;
+	}
+
+	/**
+	 * Drops the cached results of the completers for the provided type, for when the values they complete change
+	 */
+	public void invalidate(Class<?> type) {
+		synchronized (entries) {
+			entries.keySet().removeIf(key -> key.completer.getTypes().contains(type));
+		}
+	}
+
+	public void invalidate(Completer completer) {
+		synchronized (entries) {
+			entries.keySet().removeIf(key -> key.completer == completer);
+		}
+	}
+
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return how many times expired results were served, because the completer ran out of time
+	 */
+	public long getStaleHits() {
+		return staleHits.sum();
+	}
+
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	private static class Key {
+		private final Class<?> commandClass;
+		private final PathMethod method;
+		private final int argIndex;
+		private final Completer completer;
+		private final String filter;
+		private final BitSet permissions;
+		private final String sender;
+	}
+
+	@AllArgsConstructor
+	private static class Entry {
+		private final List<String> results;
+		private final long expires;
+	}
+
+}
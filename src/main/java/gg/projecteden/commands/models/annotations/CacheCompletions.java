@@ -0,0 +1,24 @@
+package gg.projecteden.commands.models.annotations;
+
+import gg.projecteden.commands.models.TabCompletionCache;
+import gg.projecteden.commands.util.TimeUtils.TickTime;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the results of a {@link TabCompleterFor} method, see {@link TabCompletionCache}
+ * <p>
+ * Results are shared between senders with the same permissions for the command. Completers whose results depend on
+ * anything else about the sender should set {@link #perSender()}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheCompletions {
+	TickTime value() default TickTime.SECOND;
+	double x() default 5;
+	boolean perSender() default false;
+
+}
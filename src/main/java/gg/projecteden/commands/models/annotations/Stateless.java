@@ -0,0 +1,19 @@
+package gg.projecteden.commands.models.annotations;
+
+import gg.projecteden.commands.models.CommandContext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs every invocation of the command on its registered instance instead of creating a new one each time
+ * <p>
+ * The command must not declare any non-final instance fields, and reads the current event through
+ * {@link CommandContext} (which <code>getEvent()</code> and the other helpers of the command do automatically)
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Stateless {
+}
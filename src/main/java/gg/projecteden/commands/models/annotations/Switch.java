@@ -5,8 +5,11 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
-// TODO Support quotations with regex "(?:[^"\\]|\\.)*"
-
+/**
+ * Marks a parameter as a switch, set anywhere in the arguments with <code>--name</code> or <code>--name=value</code>
+ * <p>
+ * Values containing spaces can be quoted: <code>--name="some value"</code>
+ */
 @Target(ElementType.PARAMETER)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Switch {
@@ -17,4 +17,11 @@ public @interface TabCompleterFor {
 	 */
 	Class<?>[] value();
 
+	/**
+	 * Whether typing more of the argument can filter the previous completions instead of running the method again.
+	 * Disable it if the method does not return every completion starting with the filter, such as when it caps
+	 * the number of completions
+	 */
+	boolean narrowable() default true;
+
 }
@@ -2,12 +2,19 @@ package gg.projecteden.commands.models.events;
 
 import gg.projecteden.commands.exceptions.CustomCommandException;
 import gg.projecteden.commands.exceptions.preconfigured.MustBeIngameException;
+import gg.projecteden.commands.models.ArgumentLexer;
+import gg.projecteden.commands.models.ArgumentLexer.Token;
 import gg.projecteden.commands.models.CustomCommand;
 import gg.projecteden.commands.util.JsonBuilder;
 import gg.projecteden.commands.util.PlayerUtils;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
 import net.kyori.adventure.text.ComponentLike;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -32,6 +39,19 @@ public abstract class CommandEvent extends Event implements Cancellable {
 	@NonNull
 	protected List<String> originalArgs;
 	protected boolean async;
+	/**
+	 * The arguments the tokens were lexed from, see {@link #getTokens()}
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	private List<String> lexedArgs;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	private List<Token> tokens;
 
 	public CommandEvent(@NonNull CommandSender sender, @NonNull CustomCommand command, @NonNull String aliasUsed,
 						@NonNull List<String> args, @NonNull List<String> originalArgs, boolean async) {
@@ -69,6 +89,17 @@ public abstract class CommandEvent extends Event implements Cancellable {
 		return "/" + getAliasUsed() + " " + getOriginalArgsString();
 	}
 
+	/**
+	 * @return the arguments with quoted sections as single tokens, lexed again only once the arguments change
+	 */
+	public List<Token> getTokens() {
+		if (tokens == null || !args.equals(lexedArgs)) {
+			lexedArgs = List.copyOf(args);
+			tokens = ArgumentLexer.lex(args);
+		}
+		return tokens;
+	}
+
 	public String getArgsString() {
 		return String.join(" ", args);
 	}
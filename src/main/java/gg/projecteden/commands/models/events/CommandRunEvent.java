@@ -4,6 +4,7 @@ import gg.projecteden.commands.Commands;
 import gg.projecteden.commands.exceptions.CustomCommandException;
 import gg.projecteden.commands.exceptions.preconfigured.MissingArgumentException;
 import gg.projecteden.commands.models.CustomCommand;
+import gg.projecteden.commands.models.PathMethod;
 import gg.projecteden.commands.models.annotations.Description;
 import gg.projecteden.commands.models.annotations.Path;
 import gg.projecteden.commands.util.JsonBuilder;
@@ -26,6 +27,13 @@ public class CommandRunEvent extends CommandEvent {
 		super(sender, command, aliasUsed, args, originalArgs, false);
 	}
 
+	public void setUsage(PathMethod method) {
+		this.method = method.getMethod();
+		this.usage = method.getPath();
+		if (method.getDescription() != null)
+			this.usage += " &7- " + method.getDescription();
+	}
+
 	public void setUsage(Method method) {
 		this.method = method;
 		Path path = method.getAnnotation(Path.class);
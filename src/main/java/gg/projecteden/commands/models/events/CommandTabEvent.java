@@ -3,13 +3,25 @@ package gg.projecteden.commands.models.events;
 import gg.projecteden.commands.exceptions.CustomCommandException;
 import gg.projecteden.commands.exceptions.preconfigured.NoPermissionException;
 import gg.projecteden.commands.models.CustomCommand;
+import lombok.Getter;
+import lombok.Setter;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
 
 import java.util.List;
 
+@Getter
+@Setter
 public class CommandTabEvent extends CommandEvent {
+	/**
+	 * {@link System#nanoTime()} after which tab completers are no longer waited for, or 0 to wait for them
+	 */
+	private long deadline;
+	/**
+	 * Whether a tab completer did not finish before the deadline, so the completions may be incomplete
+	 */
+	private boolean partial;
 
 	public CommandTabEvent(CommandSender sender, CustomCommand command, String aliasUsed, List<String> args, List<String> originalArgs) {
 		super(sender, command, aliasUsed, args, originalArgs, true);
@@ -0,0 +1,356 @@
+package gg.projecteden.commands.util;
+
+import gg.projecteden.commands.Commands;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Names and UUIDs of every player who has joined, sorted ignoring case, so offline players can be completed and
+ * converted without materializing {@link Bukkit#getOfflinePlayers()}
+ * <p>
+ * The table is built once in the background, from the file it was last saved to if there is one, otherwise from the
+ * server's player data. Players joining afterwards are kept in a small sorted map next to it, and merged into the
+ * table when it is saved.
+ * <p>
+ * The file starts with a magic number and a format version, followed by the number of players and, for each of them
+ * in order, the two halves of their UUID and their name prefixed with its length. It is read whole rather than
+ * memory-mapped, as a mapping that is still open keeps the file from being replaced when saving on some platforms.
+ * <p>
+ * Static, like the {@link Commands} instance, so there is one per copy of the API.
+ * Plugins shading it must relocate it, otherwise they would share both and clear them under each other.
+ */
+public final class OfflinePlayerIndex {
+	private static final int MAGIC = 0x4F504C58;
+	private static final int VERSION = 1;
+
+	private static volatile Table table = Table.EMPTY;
+	private static volatile boolean loaded;
+	private static final NavigableMap<String, UUID> joined = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+	/**
+	 * Incremented when the index is cleared, so a build that was still running is discarded
+	 */
+	private static volatile int generation;
+	@Nullable
+	private static volatile Path file;
+	private static boolean started;
+
+	private OfflinePlayerIndex() {}
+
+	/**
+	 * Starts building the index in the background, if it has not been started yet
+	 *
+	 * @param file where to read the index from and save it to, or null to build it from the server's player data every time
+	 */
+	public static synchronized void load(@Nullable Path file) {
+		if (started)
+			return;
+
+		started = true;
+		OfflinePlayerIndex.file = file;
+		int generation = OfflinePlayerIndex.generation;
+		Tasks.async(() -> {
+			long start = System.nanoTime();
+			Table table = file == null ? null : read(file);
+			boolean fromFile = table != null;
+			if (table == null)
+				table = scan();
+
+			synchronized (OfflinePlayerIndex.class) {
+				if (generation != OfflinePlayerIndex.generation)
+					return;
+
+				OfflinePlayerIndex.table = table;
+				loaded = true;
+			}
+
+			Commands.debug("Indexed " + table.size() + StringUtils.plural(" offline player", table.size())
+				+ (fromFile ? " from " + file : "") + " in " + ((System.nanoTime() - start) / 1_000_000) + "ms");
+
+			if (!fromFile && file != null)
+				save();
+		});
+	}
+
+	public static boolean isLoaded() {
+		return loaded;
+	}
+
+	public static void add(Player player) {
+		joined.put(player.getName(), player.getUniqueId());
+	}
+
+	/**
+	 * Saves the index if it has a file, then empties it
+	 */
+	public static synchronized void clear() {
+		if (loaded)
+			save();
+
+		++generation;
+		started = false;
+		loaded = false;
+		file = null;
+		table = Table.EMPTY;
+		joined.clear();
+	}
+
+	/**
+	 * @return the UUID of the player with the name, ignoring case
+	 */
+	@Nullable
+	public static UUID get(String name) {
+		UUID uuid = joined.get(name);
+		if (uuid != null)
+			return uuid;
+
+		Table table = OfflinePlayerIndex.table;
+		int index = table.lowerBound(name);
+		return index < table.size() && table.names[index].equalsIgnoreCase(name) ? table.uuid(index) : null;
+	}
+
+	/**
+	 * @return the UUID of the only player whose name starts with the prefix ignoring case,
+	 * or null if there is none or more than one
+	 */
+	@Nullable
+	public static UUID getUnique(String prefix) {
+		Table table = OfflinePlayerIndex.table;
+		int from = table.lowerBound(prefix);
+		int to = table.upperBound(prefix, from);
+		if (to - from > 1)
+			return null;
+
+		String name = to > from ? table.names[from] : null;
+		UUID uuid = to > from ? table.uuid(from) : null;
+		// Players who joined since the table was built replace the players with the same name
+		for (Map.Entry<String, UUID> recent : joined.tailMap(prefix, true).entrySet()) {
+			if (!recent.getKey().regionMatches(true, 0, prefix, 0, prefix.length()))
+				break;
+			if (name != null && !name.equalsIgnoreCase(recent.getKey()))
+				return null;
+
+			name = recent.getKey();
+			uuid = recent.getValue();
+		}
+		return uuid;
+	}
+
+	/**
+	 * @return the names starting with the prefix ignoring case, sorted ignoring case
+	 */
+	public static List<String> complete(String prefix) {
+		Table table = OfflinePlayerIndex.table;
+		int from = table.lowerBound(prefix);
+		List<String> names = table.view.subList(from, table.upperBound(prefix, from));
+
+		Map<String, UUID> recent = joined.tailMap(prefix, true);
+		List<String> recentNames = new ArrayList<>();
+		for (String name : recent.keySet())
+			if (name.regionMatches(true, 0, prefix, 0, prefix.length()))
+				recentNames.add(name);
+			else
+				break;
+
+		if (recentNames.isEmpty())
+			return names;
+
+		TreeMap<String, String> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (String name : names)
+			merged.put(name, name);
+		for (String name : recentNames)
+			merged.put(name, name);
+		return new ArrayList<>(merged.values());
+	}
+
+	private static Table scan() {
+		TreeMap<String, OfflinePlayer> players = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
+			String name = player.getName();
+			if (name == null)
+				continue;
+
+			// Names can be taken over by another account, keep whoever played last
+			OfflinePlayer previous = players.get(name);
+			if (previous == null || previous.getLastPlayed() < player.getLastPlayed())
+				players.put(name, player);
+		}
+
+		TreeMap<String, UUID> uuids = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		players.forEach((name, player) -> uuids.put(name, player.getUniqueId()));
+		return Table.of(uuids);
+	}
+
+	/**
+	 * Merges the players who joined into the table and writes it to the file, if there is one
+	 */
+	private static synchronized void save() {
+		Path file = OfflinePlayerIndex.file;
+		if (file == null)
+			return;
+
+		Map<String, UUID> recent = new TreeMap<>(joined);
+		Table merged = table.with(recent);
+		table = merged;
+		recent.forEach(joined::remove);
+
+		try {
+			Files.createDirectories(file.getParent());
+			Path temp = Files.createTempFile(file.getParent(), "offline-players", ".tmp");
+			try (OutputStream stream = Files.newOutputStream(temp);
+				 DataOutputStream output = new DataOutputStream(stream)) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeInt(merged.size());
+				for (int i = 0; i < merged.size(); i++) {
+					byte[] bytes = merged.names[i].getBytes(StandardCharsets.UTF_8);
+					output.writeLong(merged.most[i]);
+					output.writeLong(merged.least[i]);
+					output.writeInt(bytes.length);
+					output.write(bytes);
+				}
+			}
+
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			Commands.warn("Could not write offline player index " + file, ex);
+		}
+	}
+
+	@Nullable
+	private static Table read(Path file) {
+		if (!Files.isRegularFile(file))
+			return null;
+
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+				return null;
+
+			int count = buffer.getInt();
+			String[] names = new String[count];
+			long[] most = new long[count];
+			long[] least = new long[count];
+			for (int i = 0; i < count; i++) {
+				most[i] = buffer.getLong();
+				least[i] = buffer.getLong();
+				byte[] bytes = new byte[buffer.getInt()];
+				buffer.get(bytes);
+				names[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			return new Table(names, most, least);
+		} catch (IOException | RuntimeException ex) {
+			Commands.warn("Ignoring unreadable offline player index " + file, ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Names sorted ignoring case, with the UUID of each name split in two arrays
+	 */
+	private static class Table {
+		private static final Table EMPTY = new Table(new String[0], new long[0], new long[0]);
+
+		private final String[] names;
+		private final long[] most;
+		private final long[] least;
+		private final List<String> view;
+
+		private Table(String[] names, long[] most, long[] least) {
+			this.names = names;
+			this.most = most;
+			this.least = least;
+			this.view = Collections.unmodifiableList(Arrays.asList(names));
+		}
+
+		/**
+		 * @param players sorted ignoring case
+		 */
+		private static Table of(Map<String, UUID> players) {
+			String[] names = new String[players.size()];
+			long[] most = new long[players.size()];
+			long[] least = new long[players.size()];
+			int i = 0;
+			for (Map.Entry<String, UUID> player : players.entrySet()) {
+				names[i] = player.getKey();
+				most[i] = player.getValue().getMostSignificantBits();
+				least[i] = player.getValue().getLeastSignificantBits();
+				++i;
+			}
+			return new Table(names, most, least);
+		}
+
+		/**
+		 * @return a copy of the table with the players added, replacing the players with the same names
+		 */
+		private Table with(Map<String, UUID> players) {
+			if (players.isEmpty())
+				return this;
+
+			TreeMap<String, UUID> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+			for (int i = 0; i < names.length; i++)
+				merged.put(names[i], uuid(i));
+			merged.putAll(players);
+			return of(merged);
+		}
+
+		private int size() {
+			return names.length;
+		}
+
+		private UUID uuid(int index) {
+			return new UUID(most[index], least[index]);
+		}
+
+		/**
+		 * @return the first index whose name is not less than the prefix, ignoring case
+		 */
+		private int lowerBound(String prefix) {
+			int low = 0, high = names.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (String.CASE_INSENSITIVE_ORDER.compare(names[mid], prefix) < 0)
+					low = mid + 1;
+				else
+					high = mid;
+			}
+			return low;
+		}
+
+		/**
+		 * @return the first index from <code>low</code> whose name does not start with the prefix, ignoring case
+		 */
+		private int upperBound(String prefix, int low) {
+			int high = names.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (names[mid].regionMatches(true, 0, prefix, 0, prefix.length()))
+					low = mid + 1;
+				else
+					high = mid;
+			}
+			return low;
+		}
+	}
+
+}
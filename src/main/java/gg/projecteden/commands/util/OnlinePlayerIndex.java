@@ -0,0 +1,159 @@
+package gg.projecteden.commands.util;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Online players by lowercase name, kept up to date from join and quit events by the command listener
+ * <p>
+ * Every change publishes a new immutable snapshot, so lookups never lock and can run from async tab completion.
+ * <p>
+ * Static, like the {@link gg.projecteden.commands.Commands} instance, so there is one per copy of the API.
+ * Plugins shading it must relocate it, otherwise they would share both and clear them under each other.
+ */
+public final class OnlinePlayerIndex {
+	private static final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+	private OnlinePlayerIndex() {}
+
+	public static void add(Player player) {
+		update(players -> {
+			players.removeIf(online -> online.getUniqueId().equals(player.getUniqueId()));
+			players.add(player);
+			return players;
+		});
+	}
+
+	public static void remove(Player player) {
+		update(players -> {
+			players.removeIf(online -> online.getUniqueId().equals(player.getUniqueId()));
+			return players;
+		});
+	}
+
+	/**
+	 * Replaces the index with the provided players
+	 */
+	public static void reset(Collection<? extends Player> players) {
+		update($ -> new ArrayList<>(players));
+	}
+
+	public static void clear() {
+		snapshot.set(Snapshot.EMPTY);
+	}
+
+	private static void update(UnaryOperator<List<Player>> change) {
+		snapshot.updateAndGet(current -> new Snapshot(change.apply(new ArrayList<>(current.all))));
+	}
+
+	/**
+	 * @return every online player, sorted by name
+	 */
+	public static List<Player> getAll() {
+		return snapshot.get().all;
+	}
+
+	@Nullable
+	public static Player get(UUID uuid) {
+		return snapshot.get().byUuid.get(uuid);
+	}
+
+	/**
+	 * @return the player with the name, ignoring case
+	 */
+	@Nullable
+	public static Player getExact(String name) {
+		return snapshot.get().byName.get(name.toLowerCase());
+	}
+
+	/**
+	 * @return the players whose name starts with the prefix ignoring case, sorted by name
+	 */
+	public static List<Player> getByPrefix(String prefix) {
+		return snapshot.get().prefix(prefix.toLowerCase());
+	}
+
+	/**
+	 * @return the players whose name contains the text ignoring case, sorted by name
+	 */
+	public static List<Player> getByPartial(String partial) {
+		return snapshot.get().partial(partial.toLowerCase());
+	}
+
+	/**
+	 * @param viewer the player who must be able to see the results, or null if the sender is not a player and sees everyone
+	 * @return the names of the players whose name starts with the prefix ignoring case, sorted
+	 */
+	public static List<String> complete(String prefix, @Nullable Player viewer) {
+		List<String> names = new ArrayList<>();
+		for (Player player : getByPrefix(prefix))
+			if (viewer == null || PlayerUtils.canSee(viewer, player))
+				names.add(player.getName());
+		return names;
+	}
+
+	private static class Snapshot {
+		private static final Snapshot EMPTY = new Snapshot(new ArrayList<>());
+
+		private final String[] names;
+		private final List<Player> all;
+		private final Map<String, Player> byName = new HashMap<>();
+		private final Map<UUID, Player> byUuid = new HashMap<>();
+
+		private Snapshot(List<Player> players) {
+			players.sort(Comparator.comparing(player -> player.getName().toLowerCase()));
+			this.names = new String[players.size()];
+			for (int i = 0; i < players.size(); i++) {
+				Player player = players.get(i);
+				names[i] = player.getName().toLowerCase();
+				byName.put(names[i], player);
+				byUuid.put(player.getUniqueId(), player);
+			}
+			this.all = Collections.unmodifiableList(Arrays.asList(players.toArray(Player[]::new)));
+		}
+
+		private List<Player> prefix(String prefix) {
+			int low = 0, high = names.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (names[mid].compareTo(prefix) < 0)
+					low = mid + 1;
+				else
+					high = mid;
+			}
+
+			int from = low;
+			high = names.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (names[mid].startsWith(prefix))
+					low = mid + 1;
+				else
+					high = mid;
+			}
+
+			return all.subList(from, low);
+		}
+
+		private List<Player> partial(String partial) {
+			List<Player> players = new ArrayList<>();
+			for (int i = 0; i < names.length; i++)
+				if (names[i].contains(partial))
+					players.add(all.get(i));
+			return players;
+		}
+	}
+
+}
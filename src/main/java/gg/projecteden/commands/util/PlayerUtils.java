@@ -30,7 +30,6 @@ import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static gg.projecteden.commands.util.Nullables.isNullOrEmpty;
@@ -111,19 +110,24 @@ public class PlayerUtils {
 		if (partialName.matches("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}"))
 			return getPlayer(UUID.fromString(partialName));
 
-		final List<Player> players = OnlinePlayers.getAll();
+		Player exact = OnlinePlayerIndex.getExact(partialName);
+		if (exact != null)
+			return exact;
 
-		for (Player player : players)
-			if (player.getName().equalsIgnoreCase(partialName))
-				return player;
+		List<Player> prefixed = OnlinePlayerIndex.getByPrefix(partialName);
+		if (!prefixed.isEmpty())
+			return prefixed.get(0);
 
-		for (Player player : players)
-			if (player.getName().toLowerCase().startsWith(partialName))
-				return player;
+		List<Player> partial = OnlinePlayerIndex.getByPartial(partialName);
+		if (!partial.isEmpty())
+			return partial.get(0);
 
-		for (Player player : players)
-			if (player.getName().toLowerCase().contains((partialName)))
-				return player;
+		// Only an exact or unambiguous match, as an offline player is often the target of a punishment
+		UUID offline = OfflinePlayerIndex.get(partialName);
+		if (offline == null)
+			offline = OfflinePlayerIndex.getUnique(partialName);
+		if (offline != null)
+			return getPlayer(offline);
 
 		throw new PlayerNotFoundException(original);
 	}
@@ -277,17 +281,15 @@ public class PlayerUtils {
 		}
 
 		public List<Player> get() {
-			final Supplier<List<UUID>> online = () -> Bukkit.getOnlinePlayers().stream().map(Player::getUniqueId).collect(toList());
-			final List<UUID> uuids = include == null ? online.get() : include;
+			final List<Player> players = include == null
+					? OnlinePlayerIndex.getAll()
+					: include.stream().map(OnlinePlayerIndex::get).filter(Objects::nonNull).collect(toList());
 
-			if (uuids.isEmpty())
+			if (players.isEmpty())
 				return Collections.emptyList();
 
-			Stream<Player> stream = uuids.stream()
-					                        .filter(uuid -> exclude == null || !exclude.contains(uuid))
-					                        .map(Bukkit::getOfflinePlayer)
-					                        .filter(OfflinePlayer::isOnline)
-					                        .map(OfflinePlayer::getPlayer);
+			Stream<Player> stream = players.stream()
+					                        .filter(player -> exclude == null || !exclude.contains(player.getUniqueId()));
 
 			if (origin == null && this.viewer != null) {
 				final Player viewer = Bukkit.getPlayer(this.viewer);
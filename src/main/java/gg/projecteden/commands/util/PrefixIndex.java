@@ -0,0 +1,89 @@
+package gg.projecteden.commands.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Immutable set of completions sorted by key, where the completions matching a prefix are found with two binary
+ * searches and returned as a view of the backing array
+ */
+public final class PrefixIndex {
+	private final String[] keys;
+	private final List<String> values;
+
+	private PrefixIndex(String[] keys, String[] values) {
+		this.keys = keys;
+		this.values = Collections.unmodifiableList(Arrays.asList(values));
+	}
+
+	/**
+	 * @param key   the string to match prefixes against, usually lowercase
+	 * @param value the completion
+	 */
+	public static <T> PrefixIndex of(Iterable<? extends T> elements, Function<T, String> key, Function<T, String> value) {
+		List<String[]> entries = new ArrayList<>();
+		for (T element : elements)
+			entries.add(new String[] { key.apply(element), value.apply(element) });
+		entries.sort(Comparator.comparing(entry -> entry[0]));
+
+		String[] keys = new String[entries.size()];
+		String[] values = new String[entries.size()];
+		for (int i = 0; i < entries.size(); i++) {
+			keys[i] = entries.get(i)[0];
+			values[i] = entries.get(i)[1];
+		}
+		return new PrefixIndex(keys, values);
+	}
+
+	/**
+	 * @return an unmodifiable view of the completions whose key starts with the lowercase prefix, in key order
+	 */
+	public List<String> complete(String prefix) {
+		if (prefix.isEmpty())
+			return values;
+
+		String lower = prefix.toLowerCase();
+		int from = lowerBound(lower, 0);
+		int to = upperBound(lower, from);
+		return values.subList(from, to);
+	}
+
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * @return the first index whose key is not less than the prefix
+	 */
+	private int lowerBound(String prefix, int low) {
+		int high = keys.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid].compareTo(prefix) < 0)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * @return the first index from <code>low</code> whose key does not start with the prefix
+	 */
+	private int upperBound(String prefix, int low) {
+		int high = keys.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid].startsWith(prefix))
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+}
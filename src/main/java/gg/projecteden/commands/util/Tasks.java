@@ -18,15 +18,21 @@ import java.util.function.Consumer;
 
 public class Tasks {
 	private static final BukkitScheduler scheduler = Commands.getInstance().getPlugin().getServer().getScheduler();
-	private static final Plugin instance = Commands.getInstance().getPlugin();
+
+	/**
+	 * Looked up on every call rather than kept, so a reloaded plugin is not held on to
+	 */
+	private static Plugin instance() {
+		return Commands.getInstance().getPlugin();
+	}
 
 	public static int wait(TickTime delay, Runnable runnable) {
 		return wait(delay.get(), runnable);
 	}
 
 	public static int wait(long delay, Runnable runnable) {
-		if (instance.isEnabled())
-			return scheduler.runTaskLater(instance, runnable, delay).getTaskId();
+		if (instance().isEnabled())
+			return scheduler.runTaskLater(instance(), runnable, delay).getTaskId();
 		Commands.log("Attempted to register wait task while disabled");
 		return -1;
 	}
@@ -44,15 +50,15 @@ public class Tasks {
 	}
 
 	public static int repeat(long startDelay, long interval, Runnable runnable) {
-		if (instance.isEnabled())
-			return scheduler.scheduleSyncRepeatingTask(instance, runnable, startDelay, interval);
+		if (instance().isEnabled())
+			return scheduler.scheduleSyncRepeatingTask(instance(), runnable, startDelay, interval);
 		Commands.log("Attempted to register repeat task while disabled");
 		return -1;
 	}
 
 	public static int sync(Runnable runnable) {
-		if (instance.isEnabled())
-			return scheduler.runTask(instance, runnable).getTaskId();
+		if (instance().isEnabled())
+			return scheduler.runTask(instance(), runnable).getTaskId();
 		Commands.log("Attempted to register sync task while disabled");
 		return -1;
 	}
@@ -62,8 +68,8 @@ public class Tasks {
 	}
 
 	public static int waitAsync(long delay, Runnable runnable) {
-		if (instance.isEnabled())
-			return scheduler.runTaskLaterAsynchronously(instance, runnable, delay).getTaskId();
+		if (instance().isEnabled())
+			return scheduler.runTaskLaterAsynchronously(instance(), runnable, delay).getTaskId();
 		Commands.log("Attempted to register waitAsync task while disabled");
 		return -1;
 	}
@@ -81,15 +87,15 @@ public class Tasks {
 	}
 
 	public static int repeatAsync(long startDelay, long interval, Runnable runnable) {
-		if (instance.isEnabled())
-			return scheduler.runTaskTimerAsynchronously(instance, runnable, startDelay, interval).getTaskId();
+		if (instance().isEnabled())
+			return scheduler.runTaskTimerAsynchronously(instance(), runnable, startDelay, interval).getTaskId();
 		Commands.log("Attempted to register repeatAsync task while disabled");
 		return -1;
 	}
 
 	public static int async(Runnable runnable) {
-		if (instance.isEnabled())
-			return scheduler.runTaskAsynchronously(instance, runnable).getTaskId();
+		if (instance().isEnabled())
+			return scheduler.runTaskAsynchronously(instance(), runnable).getTaskId();
 		Commands.log("Attempted to register async task while disabled");
 		return -1;
 	}
@@ -34,10 +34,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
 import java.util.function.Consumer;
@@ -82,10 +80,12 @@ public class Utils {
 		return list;
 	}
 
-	private static Map<Class<?>, Object> singletons = new ConcurrentHashMap<>();
-
-	public static <T> T singletonOf(Class<T> clazz) {
-		return (T) singletons.computeIfAbsent(clazz, $ -> {
+	/**
+	 * Stored on the classes themselves, so they do not keep a reloaded plugin's classes alive
+	 */
+	private static final ClassValue<Object> singletons = new ClassValue<>() {
+		@Override
+		protected Object computeValue(Class<?> clazz) {
 			try {
 				return clazz.getConstructor().newInstance();
 			} catch (InvocationTargetException | InstantiationException | IllegalAccessException |
@@ -97,7 +97,15 @@ public class Utils {
 					throw new IllegalStateException("Failed to create singleton of " + clazz.getName() + " using Objenesis", t);
 				}
 			}
-		});
+		}
+	};
+
+	public static <T> T singletonOf(Class<T> clazz) {
+		return (T) singletons.get(clazz);
+	}
+
+	public static void removeSingleton(Class<?> clazz) {
+		singletons.remove(clazz);
 	}
 
 	public static boolean canEnable(Class<?> clazz) {
@@ -0,0 +1,167 @@
+package gg.projecteden.commands;
+
+import gg.projecteden.commands.models.CustomCommand;
+import gg.projecteden.commands.models.events.CommandTabEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.CommandMap;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that nothing kept about a command outlives it once it is unregistered, which would keep the class loader
+ * of a disabled plugin and all of its classes in memory
+ */
+@SuppressWarnings("unchecked")
+class CommandLeakTest {
+	private static final String FIXTURE = "gg.projecteden.commands.fixtures.LeakCommand";
+	private static final UUID PLAYER = UUID.randomUUID();
+	private static final Server SERVER = stub(Server.class);
+	private static final SimpleCommandMap COMMAND_MAP = new SimpleCommandMap(SERVER);
+
+	@Test
+	void unregisteredCommandDoesNotKeepItsClassLoader() throws Exception {
+		WeakReference<ClassLoader> loader = registerAndUnregister();
+
+		for (int i = 0; i < 50 && loader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+
+		assertNull(loader.get(), "The class loader of an unregistered command was not collected");
+	}
+
+	/**
+	 * Registers the command from a class loader of its own, completes it so the completion cache, the narrowing
+	 * sessions and the enum indexes hold on to it, then unregisters everything
+	 */
+	private static WeakReference<ClassLoader> registerAndUnregister() throws Exception {
+		if (Bukkit.getServer() == null)
+			Bukkit.setServer(SERVER);
+
+		URL classes = CommandLeakTest.class.getProtectionDomain().getCodeSource().getLocation();
+		try (URLClassLoader loader = new IsolatedClassLoader(classes, CommandLeakTest.class.getClassLoader())) {
+			Class<? extends CustomCommand> clazz = (Class<? extends CustomCommand>) loader.loadClass(FIXTURE);
+			assertNotSame(CommandLeakTest.class.getClassLoader(), clazz.getClassLoader());
+
+			Commands commands = new Commands(stub(Plugin.class)).add(clazz).registerAll();
+			CustomCommand command = Commands.get(clazz);
+			assertNotNull(command);
+			assertNotNull(COMMAND_MAP.getKnownCommands().get("leak"));
+
+			assertEquals(List.of("leak", "lock"), complete(command, "l"));
+			assertEquals(List.of("leak"), complete(command, "le"));
+			assertEquals(List.of("off", "on"), complete(command, "mode "));
+			assertNotEquals(0, commands.getTabCompletionCache().size());
+
+			Commands.unregisterAll();
+			assertNull(Commands.get(clazz));
+			assertNull(COMMAND_MAP.getKnownCommands().get("leak"));
+			return new WeakReference<>(loader);
+		}
+	}
+
+	private static List<String> complete(CustomCommand command, String buffer) {
+		List<String> args = new ArrayList<>(Arrays.asList(buffer.split(" ", -1)));
+		CommandTabEvent event = new CommandTabEvent(stub(Player.class), command, "leak", args, Collections.unmodifiableList(args));
+		return command.tabComplete(event);
+	}
+
+	/**
+	 * @return an implementation of the interface whose methods return the server, another stub or an empty value
+	 */
+	private static <T> T stub(Class<T> type) {
+		return type.cast(Proxy.newProxyInstance(CommandLeakTest.class.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return type.getSimpleName();
+			}
+
+			return value(method);
+		}));
+	}
+
+	private static Object value(Method method) {
+		Class<?> type = method.getReturnType();
+		if (type == boolean.class)
+			return true;
+		if (type.isPrimitive())
+			return type == void.class ? null : Array.get(Array.newInstance(type, 1), 0);
+		if (type == String.class)
+			return "Leak";
+		if (type == UUID.class)
+			return PLAYER;
+		if (type == Logger.class)
+			return Logger.getLogger(CommandLeakTest.class.getSimpleName());
+		if (type == Server.class)
+			return SERVER;
+		if (type == CommandMap.class)
+			return COMMAND_MAP;
+		if (type == PluginDescriptionFile.class)
+			return new PluginDescriptionFile("Leak", "1.0", FIXTURE);
+		if (type == Set.class)
+			return Set.of();
+		if (type == Map.class)
+			return Map.of();
+		if (Collection.class.isAssignableFrom(type))
+			return List.of();
+		if (type.isInterface())
+			return stub(type);
+		return null;
+	}
+
+	/**
+	 * Loads the fixture itself instead of delegating to the test class loader
+	 */
+	private static class IsolatedClassLoader extends URLClassLoader {
+
+		private IsolatedClassLoader(URL classes, ClassLoader parent) {
+			super(new URL[] { classes }, parent);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.startsWith(FIXTURE))
+				return super.loadClass(name, resolve);
+
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> clazz = findLoadedClass(name);
+				if (clazz == null)
+					clazz = findClass(name);
+				if (resolve)
+					resolveClass(clazz);
+				return clazz;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package gg.projecteden.commands.fixtures;
+
+import gg.projecteden.commands.models.CustomCommand;
+import gg.projecteden.commands.models.annotations.CacheCompletions;
+import gg.projecteden.commands.models.annotations.ConverterFor;
+import gg.projecteden.commands.models.annotations.Path;
+import gg.projecteden.commands.models.annotations.TabCompleterFor;
+import gg.projecteden.commands.models.events.CommandEvent;
+
+import java.util.List;
+
+/**
+ * Loaded by a class loader of its own in {@link gg.projecteden.commands.CommandLeakTest}
+ */
+public class LeakCommand extends CustomCommand {
+
+	public LeakCommand(CommandEvent event) {
+		super(event);
+	}
+
+	@Path("<value>")
+	void run(LeakCommand value) {}
+
+	@Path("mode <mode>")
+	void mode(LeakMode mode) {}
+
+	@ConverterFor(LeakCommand.class)
+	LeakCommand convertToLeakCommand(String value) {
+		return this;
+	}
+
+	@CacheCompletions
+	@TabCompleterFor(LeakCommand.class)
+	List<String> tabCompleteLeakCommand(String filter) {
+		return List.of("leak", "lock").stream().filter(value -> value.startsWith(filter)).toList();
+	}
+
+	public enum LeakMode {
+		ON,
+		OFF,
+	}
+
+}